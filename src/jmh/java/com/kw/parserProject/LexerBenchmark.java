@@ -0,0 +1,57 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+// compares scalar and vectorized lexing of the same program, run with: mvn -P vector-api test-compile exec:exec
+@State(Scope.Benchmark)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class LexerBenchmark {
+    // SHORT_RUNS - usual code with single spaces and short numbers, LONG_RUNS - indented code with long numbers
+    @Param({"SHORT_RUNS", "LONG_RUNS"})
+    private String source;
+
+    private String program;
+    private Lexer scalarLexer;
+    private Lexer vectorizedLexer;
+
+    @Setup
+    public void setUp() {
+        boolean longRuns = source.equals("LONG_RUNS");
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            String indentation = longRuns ? " ".repeat(32 + random.nextInt(32)) : "";
+            String number = longRuns ? String.valueOf(random.nextLong() & Long.MAX_VALUE).repeat(3) : String.valueOf(random.nextInt(100));
+            builder.append(indentation).append("v").append(random.nextInt(1000)).append(" = ").append(number)
+                    .append(" + v").append(random.nextInt(1000)).append("\n");
+        }
+        program = builder.toString();
+        scalarLexer = new Lexer();
+        vectorizedLexer = Lexer.withVectorizedScanning();
+        if (!vectorizedLexer.isVectorized()) {
+            throw new IllegalStateException("Vectorized scanning is not available, build with 'vector-api' profile");
+        }
+    }
+
+    @Benchmark
+    public TokenBuffer scalar() {
+        return scalarLexer.extractTokenBuffer(program);
+    }
+
+    @Benchmark
+    public TokenBuffer vectorized() {
+        return vectorizedLexer.extractTokenBuffer(program);
+    }
+}
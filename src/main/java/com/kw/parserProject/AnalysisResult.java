@@ -0,0 +1,16 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Statement;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// outcome of analysing one program of a batch. index is the position of the program in the batch, file is null
+// for programs given as text. unused statements are null when reading the file, lexing, parsing or checking
+// the program failed - also with an error, like a program nested too deeply for the checker
+public record AnalysisResult(int index, Path file, List<Statement> unusedStatements, Throwable failure) {
+
+    public boolean failed() {
+        return failure != null;
+    }
+}
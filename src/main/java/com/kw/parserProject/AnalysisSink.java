@@ -0,0 +1,6 @@
+package com.kw.parserProject;
+
+@FunctionalInterface
+public interface AnalysisSink {
+    void report(AnalysisResult result);
+}
@@ -0,0 +1,147 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Statement;
+import com.kw.parserProject.tokens.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// runs lexer, parser and unused statement checker over many programs, each on its own virtual thread.
+// programs are started largest first and at most 'parallelism' of them are analysed at once, so a batch of many
+// files doesn't keep all their tokens in memory. the parser and the checker keep no state between calls, so they
+// are shared, every program is lexed by its own lexer with its own symbol table. a program failing in any way gets
+// a failed result, other programs of the batch are analysed anyway
+public class BatchAnalyzer implements AutoCloseable {
+    private final Parser parser;
+    private final UnusedStatementChecker unusedStatementChecker = new UnusedStatementChecker();
+    private final Object sinkLock = new Object();
+    private final int parallelism;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchAnalyzer(int parallelism) {
+        this(parallelism, new Parser());
+    }
+
+    // given parser is used by all threads at once, e.g. one with interning expression factory
+    public BatchAnalyzer(int parallelism, Parser parser) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism has to be positive, got: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.parser = parser;
+    }
+
+    // results in order of given sources
+    public List<AnalysisResult> analyzeSources(List<String> sources) {
+        return analyzeSources(sources, _ -> {
+        });
+    }
+
+    // sink gets results as soon as they are ready, one at a time
+    public List<AnalysisResult> analyzeSources(List<String> sources, AnalysisSink sink) {
+        long[] sizes = sources.stream().mapToLong(String::length).toArray();
+        return analyze(sizes, sink, index -> analyze(index, null, () -> new Lexer().extractTokenBuffer(sources.get(index))));
+    }
+
+    public List<AnalysisResult> analyzeFiles(List<Path> files) {
+        return analyzeFiles(files, _ -> {
+        });
+    }
+
+    public List<AnalysisResult> analyzeFiles(List<Path> files, AnalysisSink sink) {
+        long[] sizes = new long[files.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            try {
+                sizes[i] = Files.size(files.get(i));
+            } catch (IOException e) {
+                // reported once the file is read
+                sizes[i] = 0;
+            }
+        }
+        return analyze(sizes, sink, index -> analyze(index, files.get(index), () -> new Lexer().extractTokenBuffer(files.get(index))));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private List<AnalysisResult> analyze(long[] sizes, AnalysisSink sink, Analysis analysis) {
+        Integer[] largestFirst = new Integer[sizes.length];
+        Arrays.setAll(largestFirst, index -> index);
+        Arrays.sort(largestFirst, Comparator.comparingLong((Integer index) -> sizes[index]).reversed());
+
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<AnalysisResult>> results = new ArrayList<>(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            results.add(null);
+        }
+        try {
+            for (int index : largestFirst) {
+                permits.acquire();
+                results.set(index, executor.submit(() -> {
+                    try {
+                        AnalysisResult result = analysis.run(index);
+                        synchronized (sinkLock) {
+                            sink.report(result);
+                        }
+                        return result;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<AnalysisResult> orderedResults = new ArrayList<>(sizes.length);
+            for (Future<AnalysisResult> result : results) {
+                orderedResults.add(result.get());
+            }
+            return orderedResults;
+        } catch (ExecutionException e) {
+            // failures of programs are results already, so this is the sink failing
+            cancel(results);
+            throw new IllegalStateException("Analysis of a program failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(results);
+            throw new IllegalStateException("Interrupted while waiting for analysed programs", e);
+        }
+    }
+
+    private static void cancel(List<Future<AnalysisResult>> results) {
+        results.stream().filter(result -> result != null).forEach(result -> result.cancel(true));
+    }
+
+    private AnalysisResult analyze(int index, Path file, TokenProvider tokens) {
+        try {
+            List<Statement> unusedStatements = unusedStatementChecker.getUnusedStatements(parser.parse(tokens.get()));
+            return new AnalysisResult(index, file, unusedStatements, null);
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            // the checker recurses once per nesting level, while the parser accepts any nesting
+            return new AnalysisResult(index, file, null, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Analysis {
+        AnalysisResult run(int index);
+    }
+
+    @FunctionalInterface
+    private interface TokenProvider {
+        TokenBuffer get() throws IOException;
+    }
+}
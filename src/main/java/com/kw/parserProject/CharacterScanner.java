@@ -0,0 +1,13 @@
+package com.kw.parserProject;
+
+// skips runs of whitespaces and digits faster than the lexer classifying one character at a time.
+// the lexer continues with its own loop from the returned position, so a scanner may stop anywhere within a run
+interface CharacterScanner {
+
+    // line as the scanner wants to read it, only valid until the next line is staged by the same thread
+    CharSequence stage(CharSequence line);
+
+    int skipWhitespaces(CharSequence line, int from);
+
+    int skipAsciiDigits(CharSequence line, int from);
+}
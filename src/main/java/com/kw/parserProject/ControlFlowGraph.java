@@ -0,0 +1,410 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.*;
+import com.kw.parserProject.utility.IntList;
+import com.kw.parserProject.utility.SymbolSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// program lowered into basic blocks. a block holds actions executed one after another - assignments and
+// conditions of 'if' and 'while' - and ends where control may go to more than one place.
+// block 0 is the entry, blocks are numbered in program order. actions of all blocks are stored in one array,
+// edges and dominator tree as index arrays, so the graph keeps no objects of its own besides the arrays
+public final class ControlFlowGraph {
+    private final Statement[] actions; // assignments and statements whose conditions are evaluated
+    private final int[] actionStarts; // actions of block b are from actionStarts[b] to actionStarts[b + 1]
+    private final int[] successorStarts;
+    private final int[] successors;
+    private final int[] predecessorStarts;
+    private final int[] predecessors;
+    private final int[] loopHeaders; // condition block of the innermost enclosing loop, -1 outside of loops
+    private final int[] loopDepths;
+    private final int[] immediateDominators;
+    private final int[] dominatedStarts; // children of block b in dominator tree are from dominatedStarts[b]
+    private final int[] dominated; // to dominatedStarts[b + 1], in order of blocks
+    private final int[] dominatorTreeEntries; // pre-order and post-order numbers in dominator tree,
+    private final int[] dominatorTreeExits; // a block dominates blocks numbered within its range
+    private final int exit;
+    private final int symbolCount;
+
+    private ControlFlowGraph(Builder builder, int exit) {
+        int blockCount = builder.loopHeaders.size();
+        this.actions = builder.actions.toArray(new Statement[0]);
+        this.actionStarts = builder.actionStarts.toArray();
+        this.loopHeaders = builder.loopHeaders.toArray();
+        this.loopDepths = builder.loopDepths.toArray();
+        this.exit = exit;
+        this.symbolCount = builder.maxSymbolId + 1;
+
+        int[] edgeSources = builder.edgeSources.toArray();
+        int[] edgeTargets = builder.edgeTargets.toArray();
+        this.successorStarts = new int[blockCount + 1];
+        this.successors = groupByKey(edgeSources, edgeTargets, successorStarts);
+        this.predecessorStarts = new int[blockCount + 1];
+        this.predecessors = groupByKey(edgeTargets, edgeSources, predecessorStarts);
+
+        this.immediateDominators = computeImmediateDominators();
+        this.dominatedStarts = new int[blockCount + 1];
+        this.dominated = groupDominatorTree();
+        this.dominatorTreeEntries = new int[blockCount];
+        this.dominatorTreeExits = new int[blockCount];
+        numberDominatorTree();
+    }
+
+    public static ControlFlowGraph of(Program program) {
+        Builder builder = new Builder();
+        int exit = builder.addStatements(program.statements(), builder.newBlock(-1));
+        builder.actionStarts.add(builder.actions.size());
+        return new ControlFlowGraph(builder, exit);
+    }
+
+    public int entry() {
+        return 0;
+    }
+
+    // block where control gets after the last statement
+    public int exit() {
+        return exit;
+    }
+
+    public int blockCount() {
+        return loopHeaders.length;
+    }
+
+    // highest symbol id used in the program plus one
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    public int actionCount() {
+        return actions.length;
+    }
+
+    // index of the first action of the block, actions of the block end where the next block starts
+    public int actionStart(int block) {
+        return actionStarts[checkBlock(block)];
+    }
+
+    public int actionEnd(int block) {
+        return actionStarts[checkBlock(block) + 1];
+    }
+
+    // the assignment, or 'if' / 'while' statement for evaluation of its condition
+    public Statement statement(int action) {
+        return actions[action];
+    }
+
+    public boolean isCondition(int action) {
+        return !(actions[action] instanceof Assignment);
+    }
+
+    // expression evaluated by the action - assigned expression or condition
+    public Expression expression(int action) {
+        return switch (actions[action]) {
+            case Assignment assignment -> assignment.expression();
+            case WhileStatement whileStatement -> whileStatement.condition();
+            case IfStatement ifStatement -> ifStatement.condition();
+            default -> throw new IllegalStateException("Undefined statement type: " + actions[action]);
+        };
+    }
+
+    public int successorCount(int block) {
+        return successorStarts[checkBlock(block) + 1] - successorStarts[block];
+    }
+
+    // conditions go to the block of their 'if' section or loop body first
+    public int successor(int block, int index) {
+        return successors[successorStarts[checkBlock(block)] + Objects.checkIndex(index, successorCount(block))];
+    }
+
+    public int predecessorCount(int block) {
+        return predecessorStarts[checkBlock(block) + 1] - predecessorStarts[block];
+    }
+
+    public int predecessor(int block, int index) {
+        return predecessors[predecessorStarts[checkBlock(block)] + Objects.checkIndex(index, predecessorCount(block))];
+    }
+
+    // -1 for the entry
+    public int immediateDominator(int block) {
+        return immediateDominators[checkBlock(block)];
+    }
+
+    // number of blocks whose immediate dominator is the block
+    public int dominatedCount(int block) {
+        return dominatedStarts[checkBlock(block) + 1] - dominatedStarts[block];
+    }
+
+    public int dominated(int block, int index) {
+        return dominated[dominatedStarts[checkBlock(block)] + Objects.checkIndex(index, dominatedCount(block))];
+    }
+
+    // every path from the entry to the block goes through the dominator, a block dominates itself
+    public boolean dominates(int dominator, int block) {
+        return dominatorTreeEntries[checkBlock(dominator)] <= dominatorTreeEntries[checkBlock(block)]
+                && dominatorTreeExits[block] <= dominatorTreeExits[dominator];
+    }
+
+    // block evaluating condition of the innermost loop containing the block, -1 outside of loops.
+    // condition block of a loop belongs to the loop itself
+    public int loopHeader(int block) {
+        return loopHeaders[checkBlock(block)];
+    }
+
+    // number of loops containing the block
+    public int loopDepth(int block) {
+        return loopDepths[checkBlock(block)];
+    }
+
+    private int checkBlock(int block) {
+        return Objects.checkIndex(block, loopHeaders.length);
+    }
+
+    // values grouped by their keys keeping their order, starts are filled with offsets of the groups.
+    // used for all adjacency lists - edges, dominator tree, chains of SSA form
+    static int[] groupByKey(int[] keys, int[] values, int[] starts) {
+        for (int key : keys) {
+            starts[key + 1]++;
+        }
+        for (int key = 0; key + 1 < starts.length; key++) {
+            starts[key + 1] += starts[key];
+        }
+        int[] grouped = new int[values.length];
+        int[] next = Arrays.copyOf(starts, starts.length - 1);
+        for (int i = 0; i < keys.length; i++) {
+            grouped[next[keys[i]]++] = values[i];
+        }
+        return grouped;
+    }
+
+    // iterative algorithm of Cooper, Harvey and Kennedy over reverse post-order, graphs of structured
+    // programs need at most two passes
+    private int[] computeImmediateDominators() {
+        int blockCount = blockCount();
+        int[] postOrder = new int[blockCount];
+        int[] postOrderNumbers = new int[blockCount];
+        int visited = postOrder(postOrder, postOrderNumbers);
+
+        int[] dominators = new int[blockCount];
+        Arrays.fill(dominators, -1);
+        dominators[entry()] = entry();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = visited - 2; i >= 0; i--) {
+                int block = postOrder[i];
+                int dominator = -1;
+                for (int p = predecessorStarts[block]; p < predecessorStarts[block + 1]; p++) {
+                    int predecessor = predecessors[p];
+                    if (dominators[predecessor] != -1) {
+                        dominator = dominator == -1 ? predecessor : intersect(dominators, postOrderNumbers, predecessor, dominator);
+                    }
+                }
+                if (dominators[block] != dominator) {
+                    dominators[block] = dominator;
+                    changed = true;
+                }
+            }
+        }
+        dominators[entry()] = -1;
+        return dominators;
+    }
+
+    private static int intersect(int[] dominators, int[] postOrderNumbers, int first, int second) {
+        while (first != second) {
+            while (postOrderNumbers[first] < postOrderNumbers[second]) {
+                first = dominators[first];
+            }
+            while (postOrderNumbers[second] < postOrderNumbers[first]) {
+                second = dominators[second];
+            }
+        }
+        return first;
+    }
+
+    // depth-first walk from the entry without recursion, returns number of reached blocks
+    private int postOrder(int[] postOrder, int[] postOrderNumbers) {
+        int blockCount = blockCount();
+        boolean[] reached = new boolean[blockCount];
+        int[] nextSuccessors = new int[blockCount]; // successor edge to follow next
+        IntList path = new IntList();
+        path.add(entry());
+        reached[entry()] = true;
+        nextSuccessors[entry()] = successorStarts[entry()];
+        int count = 0;
+        while (!path.isEmpty()) {
+            int block = path.get(path.size() - 1);
+            if (nextSuccessors[block] < successorStarts[block + 1]) {
+                int successor = successors[nextSuccessors[block]++];
+                if (!reached[successor]) {
+                    reached[successor] = true;
+                    nextSuccessors[successor] = successorStarts[successor];
+                    path.add(successor);
+                }
+            } else {
+                path.pop();
+                postOrderNumbers[block] = count;
+                postOrder[count++] = block;
+            }
+        }
+        return count;
+    }
+
+    // children of every block in dominator tree, grouped the same way as edges
+    private int[] groupDominatorTree() {
+        IntList parents = new IntList(blockCount());
+        IntList children = new IntList(blockCount());
+        for (int block = 0; block < blockCount(); block++) {
+            if (immediateDominators[block] != -1) {
+                parents.add(immediateDominators[block]);
+                children.add(block);
+            }
+        }
+        return groupByKey(parents.toArray(), children.toArray(), dominatedStarts);
+    }
+
+    private void numberDominatorTree() {
+        int blockCount = blockCount();
+
+        // unreachable blocks are left with empty ranges, so they dominate nothing
+        Arrays.fill(dominatorTreeEntries, Integer.MAX_VALUE);
+        int number = 0;
+        int[] nextChildren = Arrays.copyOf(dominatedStarts, blockCount);
+        IntList path = new IntList();
+        path.add(entry());
+        dominatorTreeEntries[entry()] = number++;
+        while (!path.isEmpty()) {
+            int block = path.get(path.size() - 1);
+            if (nextChildren[block] < dominatedStarts[block + 1]) {
+                int child = dominated[nextChildren[block]++];
+                dominatorTreeEntries[child] = number++;
+                path.add(child);
+            } else {
+                path.pop();
+                dominatorTreeExits[block] = number++;
+            }
+        }
+    }
+
+    private static final class Builder {
+        private final List<Statement> actions = new ArrayList<>();
+        private final IntList actionStarts = new IntList();
+        private final IntList loopHeaders = new IntList();
+        private final IntList loopDepths = new IntList();
+        private final IntList edgeSources = new IntList();
+        private final IntList edgeTargets = new IntList();
+        private int maxSymbolId = -1;
+
+        // blocks are filled in order of creation, so a new block starts after actions of all previous ones
+        private int newBlock(int loopHeader) {
+            int block = loopHeaders.size();
+            actionStarts.add(actions.size());
+            loopHeaders.add(loopHeader);
+            loopDepths.add(loopHeader == -1 ? 0 : loopDepths.get(loopHeader));
+            return block;
+        }
+
+        private void addEdge(int from, int to) {
+            edgeSources.add(from);
+            edgeTargets.add(to);
+        }
+
+        // returns the block where control continues after the statements. statement lists of blocks being added
+        // are kept on a stack, so that deeply nested programs don't overflow the call stack
+        private int addStatements(List<Statement> statements, int block) {
+            List<PendingStatements> pendingLists = new ArrayList<>();
+            PendingStatements list = new PendingStatements(statements, block, null, -1, -1);
+            while (true) {
+                if (list.index == list.statements.size()) {
+                    if (pendingLists.isEmpty()) {
+                        return list.block;
+                    }
+                    list = finish(list, pendingLists);
+                    continue;
+                }
+                Statement statement = list.statements.get(list.index++);
+                switch (statement) {
+                    case Assignment assignment -> {
+                        addAction(assignment, assignment.expression());
+                        maxSymbolId = Math.max(maxSymbolId, assignment.writeSymbolId());
+                    }
+                    case WhileStatement whileStatement -> {
+                        // condition is evaluated before every iteration and once more before leaving the loop
+                        int condition = newBlock(-1);
+                        loopHeaders.set(condition, condition);
+                        loopDepths.set(condition, list.loopHeader == -1 ? 1 : loopDepths.get(list.loopHeader) + 1);
+                        addEdge(list.block, condition);
+                        addAction(whileStatement, whileStatement.condition());
+                        int body = newBlock(condition);
+                        addEdge(condition, body);
+                        pendingLists.add(list);
+                        list = new PendingStatements(whileStatement.statements(), body, whileStatement, condition, -1);
+                    }
+                    case IfStatement ifStatement -> {
+                        addAction(ifStatement, ifStatement.condition());
+                        int ifClause = newBlock(list.loopHeader);
+                        addEdge(list.block, ifClause);
+                        pendingLists.add(list);
+                        list = new PendingStatements(ifStatement.ifClauseStatements(), ifClause, ifStatement, list.block, -1);
+                    }
+                    case null -> throw new IllegalArgumentException("Null statement given for analysis");
+                    default -> throw new IllegalArgumentException("Undefined statement type: " + statement);
+                }
+            }
+        }
+
+        // connects the finished list to blocks of its statement, returns the list to continue with
+        private PendingStatements finish(PendingStatements list, List<PendingStatements> pendingLists) {
+            PendingStatements parent = pendingLists.getLast();
+            if (list.statement instanceof WhileStatement) {
+                addEdge(list.block, list.branch);
+                parent.block = newBlock(parent.loopHeader);
+                addEdge(list.branch, parent.block);
+                return pendingLists.removeLast();
+            }
+            IfStatement ifStatement = (IfStatement) list.statement;
+            if (list.ifClauseEnd == -1) {
+                int elseClause = newBlock(parent.loopHeader);
+                addEdge(list.branch, elseClause);
+                return new PendingStatements(ifStatement.elseClauseStatements(), elseClause, ifStatement, list.branch, list.block);
+            }
+            parent.block = newBlock(parent.loopHeader);
+            addEdge(list.ifClauseEnd, parent.block);
+            addEdge(list.block, parent.block);
+            return pendingLists.removeLast();
+        }
+
+        // actions are always added to the last created block
+        private void addAction(Statement statement, Expression expression) {
+            actions.add(statement);
+            SymbolSet readSymbols = expression.readSymbolSet();
+            for (int symbolId = readSymbols.nextSymbol(0); symbolId != -1; symbolId = readSymbols.nextSymbol(symbolId + 1)) {
+                maxSymbolId = Math.max(maxSymbolId, symbolId);
+            }
+        }
+
+        // statements of a block's body or section, added from the current block. branch is the block evaluating
+        // condition of the statement, ifClauseEnd is the last block of 'if' section while its 'else' section is added
+        private final class PendingStatements {
+            private final List<Statement> statements;
+            private final Statement statement;
+            private final int loopHeader;
+            private final int branch;
+            private final int ifClauseEnd;
+            private int index = 0;
+            private int block;
+
+            private PendingStatements(List<Statement> statements, int block, Statement statement, int branch, int ifClauseEnd) {
+                this.statements = statements;
+                this.block = block;
+                this.statement = statement;
+                this.loopHeader = loopHeaders.get(block);
+                this.branch = branch;
+                this.ifClauseEnd = ifClauseEnd;
+            }
+        }
+    }
+}
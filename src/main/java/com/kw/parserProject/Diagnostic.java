@@ -0,0 +1,17 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.TokenKind;
+
+// error recorded instead of being thrown, when lexing or parsing in diagnostics mode.
+// position is a character index in the line for lexing errors, an index of the offending token for parsing errors.
+// expected and actual token kinds are null when they don't apply
+public record Diagnostic(Stage stage, int lineNumber, int position, String message, TokenKind expected, TokenKind actual) {
+
+    public enum Stage {
+        LEXING, PARSING
+    }
+
+    static Diagnostic of(Stage stage, int lineNumber, SyntaxException exception) {
+        return new Diagnostic(stage, lineNumber, exception.getPosition(), exception.getMessage(), exception.getExpected(), exception.getActual());
+    }
+}
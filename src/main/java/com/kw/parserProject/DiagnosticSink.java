@@ -0,0 +1,6 @@
+package com.kw.parserProject;
+
+@FunctionalInterface
+public interface DiagnosticSink {
+    void report(Diagnostic diagnostic);
+}
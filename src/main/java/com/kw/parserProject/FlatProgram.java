@@ -0,0 +1,250 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.*;
+import com.kw.parserProject.utility.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// read-only program stored in parallel primitive arrays, one entry per node instead of one object per node.
+// nodes are laid out in pre-order and linked by indices - first child and next sibling, -1 when there is none.
+// node 0 is the program, its children are top-level statements. 'while' has a condition followed by a block,
+// 'if' has a condition followed by blocks of both sections, the else block is present even when empty.
+// assignment has its expression as the only child, operator its left and right operands.
+// expressions carry line number of their statement
+public final class FlatProgram {
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private byte[] kinds;
+    private byte[] operators;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] lineNumbers;
+    private float[] values;
+    private int[] symbolIds;
+    private String[] texts; // variable names and spelling of constants, not copied from statements
+    private int size = 0;
+
+    private FlatProgram(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.kinds = new byte[capacity];
+        this.operators = new byte[capacity];
+        this.firstChildren = new int[capacity];
+        this.nextSiblings = new int[capacity];
+        this.lineNumbers = new int[capacity];
+        this.values = new float[capacity];
+        this.symbolIds = new int[capacity];
+        this.texts = new String[capacity];
+    }
+
+    public static FlatProgram of(Program program) {
+        FlatProgram flatProgram = new FlatProgram(program.statements().size() * 8);
+        // pending nodes with indices of their parents, visited in pre-order without recursion.
+        // statement lists of blocks are pushed as a whole
+        List<Object> pendingNodes = new ArrayList<>();
+        IntList pendingParents = new IntList();
+        IntList pendingLineNumbers = new IntList();
+        int[] lastChildren = new int[16];
+
+        int root = flatProgram.add(NodeKind.PROGRAM, -1, -1, lastChildren);
+        lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, root, -1, lastChildren, program.statements().toArray());
+        while (!pendingNodes.isEmpty()) {
+            Object node = pendingNodes.removeLast();
+            int parent = pendingParents.pop();
+            int lineNumber = pendingLineNumbers.pop();
+
+            int index;
+            switch (node) {
+                case List<?> statements -> {
+                    index = flatProgram.add(NodeKind.BLOCK, parent, lineNumber, lastChildren);
+                    lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, index, lineNumber, lastChildren, statements.toArray());
+                }
+                case Assignment assignment -> {
+                    index = flatProgram.add(NodeKind.ASSIGNMENT, parent, assignment.lineNumber(), lastChildren);
+                    flatProgram.symbolIds[index] = assignment.writeSymbolId();
+                    flatProgram.texts[index] = assignment.writeVariable();
+                    lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, index, assignment.lineNumber(), lastChildren, assignment.expression());
+                }
+                case WhileStatement whileStatement -> {
+                    index = flatProgram.add(NodeKind.WHILE, parent, whileStatement.lineNumber(), lastChildren);
+                    lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, index, whileStatement.lineNumber(), lastChildren,
+                            whileStatement.condition(), whileStatement.statements());
+                }
+                case IfStatement ifStatement -> {
+                    index = flatProgram.add(NodeKind.IF, parent, ifStatement.lineNumber(), lastChildren);
+                    lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, index, ifStatement.lineNumber(), lastChildren,
+                            ifStatement.condition(), ifStatement.ifClauseStatements(), ifStatement.elseClauseStatements());
+                }
+                case OperatorExpression operatorExpression -> {
+                    index = flatProgram.add(NodeKind.OPERATOR, parent, lineNumber, lastChildren);
+                    flatProgram.operators[index] = (byte) operatorExpression.operator().ordinal();
+                    lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, index, lineNumber, lastChildren,
+                            operatorExpression.leftExpression(), operatorExpression.rightExpression());
+                }
+                case BracketExpression bracketExpression -> {
+                    index = flatProgram.add(NodeKind.BRACKET, parent, lineNumber, lastChildren);
+                    lastChildren = flatProgram.pushChildren(pendingNodes, pendingParents, pendingLineNumbers, index, lineNumber, lastChildren,
+                            bracketExpression.expressionInBrackets());
+                }
+                case ValueExpression valueExpression -> {
+                    index = flatProgram.add(NodeKind.VALUE, parent, lineNumber, lastChildren);
+                    flatProgram.values[index] = valueExpression.value();
+                    flatProgram.texts[index] = valueExpression.stringRepresentation();
+                }
+                case VariableExpression variableExpression -> {
+                    index = flatProgram.add(NodeKind.VARIABLE, parent, lineNumber, lastChildren);
+                    flatProgram.symbolIds[index] = variableExpression.symbolId();
+                    flatProgram.texts[index] = variableExpression.variable();
+                }
+                case null, default -> throw new IllegalArgumentException("Undefined node type: " + node);
+            }
+        }
+        return flatProgram;
+    }
+
+    public int root() {
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NodeKind kind(int node) {
+        return KINDS[kinds[Objects.checkIndex(node, size)]];
+    }
+
+    // -1 if node has no children
+    public int firstChild(int node) {
+        return firstChildren[Objects.checkIndex(node, size)];
+    }
+
+    // -1 if node is the last child of its parent
+    public int nextSibling(int node) {
+        return nextSiblings[Objects.checkIndex(node, size)];
+    }
+
+    public int lineNumber(int node) {
+        return lineNumbers[Objects.checkIndex(node, size)];
+    }
+
+    // only valid for operators
+    public Operator operator(int node) {
+        return OPERATORS[operators[Objects.checkIndex(node, size)]];
+    }
+
+    // only valid for constants
+    public float value(int node) {
+        return values[Objects.checkIndex(node, size)];
+    }
+
+    // only valid for assignments (written variable) and variables
+    public int symbolId(int node) {
+        return symbolIds[Objects.checkIndex(node, size)];
+    }
+
+    // variable name or constant as spelled in the program
+    public String text(int node) {
+        return texts[Objects.checkIndex(node, size)];
+    }
+
+    // same output as print() of assignments and expressions, operands are walked without recursion
+    public String print(int node) {
+        StringBuilder output = new StringBuilder();
+        NodeKind nodeKind = kind(node);
+        if (nodeKind == NodeKind.ASSIGNMENT) {
+            output.append(texts[node]).append(" = ");
+            node = firstChildren[node];
+        } else if (nodeKind == NodeKind.PROGRAM || nodeKind == NodeKind.WHILE || nodeKind == NodeKind.IF || nodeKind == NodeKind.BLOCK) {
+            throw new IllegalArgumentException("Only assignments and expressions can be printed, got: " + nodeKind);
+        }
+
+        // negative entries mark operators and brackets whose first operand was already printed
+        int[] pending = new int[16];
+        int pendingCount = 0;
+        pending[pendingCount++] = node;
+        while (pendingCount > 0) {
+            int entry = pending[--pendingCount];
+            if (pendingCount + 3 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            if (entry < 0) {
+                int finished = ~entry;
+                if (kinds[finished] == NodeKind.BRACKET.ordinal()) {
+                    output.append(')');
+                } else {
+                    output.append(' ').append(OPERATORS[operators[finished]].print()).append(' ');
+                }
+                continue;
+            }
+            switch (KINDS[kinds[entry]]) {
+                case VALUE, VARIABLE -> output.append(texts[entry]);
+                case BRACKET -> {
+                    output.append('(');
+                    pending[pendingCount++] = ~entry;
+                    pending[pendingCount++] = firstChildren[entry];
+                }
+                default -> {
+                    int left = firstChildren[entry];
+                    pending[pendingCount++] = nextSiblings[left];
+                    pending[pendingCount++] = ~entry;
+                    pending[pendingCount++] = left;
+                }
+            }
+        }
+        return output.toString();
+    }
+
+    private int add(NodeKind kind, int parent, int lineNumber, int[] lastChildren) {
+        if (size == kinds.length) {
+            grow();
+        }
+        int index = size++;
+        kinds[index] = (byte) kind.ordinal();
+        operators[index] = -1;
+        firstChildren[index] = -1;
+        nextSiblings[index] = -1;
+        lineNumbers[index] = lineNumber;
+        if (parent != -1) {
+            // nodes are added in pre-order, so siblings are linked in order
+            int lastChild = lastChildren[parent];
+            if (lastChild == -1) {
+                firstChildren[parent] = index;
+            } else {
+                nextSiblings[lastChild] = index;
+            }
+            lastChildren[parent] = index;
+        }
+        return index;
+    }
+
+    // children are pushed in reverse, so that they are taken from the stack in order
+    private int[] pushChildren(List<Object> pendingNodes, IntList pendingParents, IntList pendingLineNumbers,
+                               int parent, int lineNumber, int[] lastChildren, Object... children) {
+        if (lastChildren.length <= parent) {
+            lastChildren = Arrays.copyOf(lastChildren, Math.max(lastChildren.length * 2, parent + 1));
+        }
+        lastChildren[parent] = -1;
+        for (int i = children.length - 1; i >= 0; i--) {
+            pendingNodes.add(children[i]);
+            pendingParents.add(parent);
+            pendingLineNumbers.add(lineNumber);
+        }
+        return lastChildren;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        operators = Arrays.copyOf(operators, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        values = Arrays.copyOf(values, capacity);
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+    }
+}
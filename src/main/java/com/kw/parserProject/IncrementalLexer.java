@@ -0,0 +1,314 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.Token;
+import com.kw.parserProject.tokens.TokenBuffer;
+import com.kw.parserProject.utility.LineIterator;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// keeps tokens of a program grouped by lines, so that an edit of a line range re-lexes only the new lines.
+// lines are nodes of a tree ordered by their position, tokens of a line don't know which line they are on -
+// line numbers come from the position in the tree, so lines after an edit are not touched at all.
+// nodes are never modified, an edit creates new nodes on paths to the edited range only. token objects are
+// created when tokens are requested, tokens handed out are never changed by later edits
+public class IncrementalLexer {
+    private final Lexer lexer;
+    private Node root;
+
+    public IncrementalLexer(Lexer lexer, CharSequence programCode) {
+        this.lexer = lexer;
+        List<TokenBuffer> lines = lexLines(programCode);
+        this.root = build(lines, 0, lines.size());
+    }
+
+    public int lineCount() {
+        return lineCount(root);
+    }
+
+    public List<Token> lineTokens(int lineNumber) {
+        checkLineNumber(lineNumber, lineCount());
+        return toTokens(line(root, lineNumber - 1), lineNumber);
+    }
+
+    // view of all tokens of the program as it is now, later edits don't change it
+    public List<Token> tokens() {
+        return new Tokens(root);
+    }
+
+    // replaces lines from fromLine (inclusive) to toLine (exclusive), both numbered from 1, with lines of given text.
+    // fromLine == toLine inserts text before fromLine, empty text removes the lines.
+    // returns tokens of the inserted lines. when the new text cannot be lexed, program stays unchanged
+    public List<Token> edit(int fromLine, int toLine, CharSequence newText) {
+        checkLineNumber(fromLine, lineCount() + 1);
+        checkLineNumber(toLine, lineCount() + 1);
+        if (fromLine > toLine) {
+            throw new IllegalArgumentException("Edited range is reversed: " + fromLine + " - " + toLine);
+        }
+
+        List<TokenBuffer> newLines = lexLines(newText);
+        List<Token> insertedTokens = new ArrayList<>();
+        for (int i = 0; i < newLines.size(); i++) {
+            insertedTokens.addAll(toTokens(newLines.get(i), fromLine + i));
+        }
+
+        Split beforeEdit = split(root, fromLine - 1);
+        Split edited = split(beforeEdit.right, toLine - fromLine);
+        root = merge(merge(beforeEdit.left, build(newLines, 0, newLines.size())), edited.right);
+        return insertedTokens;
+    }
+
+    private List<TokenBuffer> lexLines(CharSequence text) {
+        List<TokenBuffer> lexedLines = new ArrayList<>();
+        LineIterator lineIterator = new LineIterator(text);
+        while (lineIterator.hasNext()) {
+            // line is copied, so that later changes of given text don't affect kept tokens
+            String line = lineIterator.next().toString();
+            TokenBuffer lineTokens = new TokenBuffer(line, 8);
+            lexer.parseLine(line, (kind, start, end, ordinal) -> lineTokens.add(kind, start, end, 0, ordinal));
+            lexedLines.add(lineTokens);
+        }
+        return lexedLines;
+    }
+
+    private static List<Token> toTokens(TokenBuffer line, int lineNumber) {
+        List<Token> tokens = new ArrayList<>(line.size());
+        for (int i = 0; i < line.size(); i++) {
+            tokens.add(toToken(line, i, lineNumber));
+        }
+        return tokens;
+    }
+
+    private static Token toToken(TokenBuffer line, int index, int lineNumber) {
+        Token token = line.toToken(index);
+        token.addLineNumber(lineNumber);
+        return token;
+    }
+
+    private static void checkLineNumber(int lineNumber, int lastLineNumber) {
+        if (lineNumber < 1 || lineNumber > lastLineNumber) {
+            throw new IllegalArgumentException("Line number out of range: " + lineNumber);
+        }
+    }
+
+    private static Node build(List<TokenBuffer> lines, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node(lines.get(middle), build(lines, from, middle), build(lines, middle + 1, to));
+    }
+
+    private static TokenBuffer line(Node node, int index) {
+        while (true) {
+            int leftLines = lineCount(node.left);
+            if (index < leftLines) {
+                node = node.left;
+            } else if (index == leftLines) {
+                return node.line;
+            } else {
+                index -= leftLines + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // first lineCount lines go to the left part
+    private static Split split(Node node, int lineCount) {
+        if (node == null) {
+            return new Split(null, null);
+        }
+        int leftLines = lineCount(node.left);
+        if (lineCount <= leftLines) {
+            Split split = split(node.left, lineCount);
+            return new Split(split.left, new Node(node.line, split.right, node.right));
+        }
+        Split split = split(node.right, lineCount - leftLines - 1);
+        return new Split(new Node(node.line, node.left, split.left), split.right);
+    }
+
+    // root is picked with probability proportional to the size of its part, which keeps the tree balanced
+    // as if lines were inserted in random order
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (ThreadLocalRandom.current().nextInt(left.lineCount + right.lineCount) < left.lineCount) {
+            return new Node(left.line, left.left, merge(left.right, right));
+        }
+        return new Node(right.line, merge(left, right.left), right.right);
+    }
+
+    private static int lineCount(Node node) {
+        return node == null ? 0 : node.lineCount;
+    }
+
+    private static int tokenCount(Node node) {
+        return node == null ? 0 : node.tokenCount;
+    }
+
+    private record Split(Node left, Node right) {
+    }
+
+    private static final class Node {
+        private final TokenBuffer line;
+        private final Node left;
+        private final Node right;
+        private final int lineCount;
+        private final int tokenCount;
+
+        private Node(TokenBuffer line, Node left, Node right) {
+            this.line = line;
+            this.left = left;
+            this.right = right;
+            this.lineCount = lineCount(left) + 1 + lineCount(right);
+            this.tokenCount = tokenCount(left) + line.size() + tokenCount(right);
+        }
+    }
+
+    // tokens are looked up by walking the tree, iterators walk it only when they move to another line
+    private static final class Tokens extends AbstractList<Token> {
+        private final Node root;
+
+        private Tokens(Node root) {
+            this.root = root;
+        }
+
+        @Override
+        public int size() {
+            return tokenCount(root);
+        }
+
+        @Override
+        public Token get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            Node node = root;
+            int linesBefore = 0;
+            while (true) {
+                int leftTokens = tokenCount(node.left);
+                if (index < leftTokens) {
+                    node = node.left;
+                    continue;
+                }
+                index -= leftTokens;
+                linesBefore += lineCount(node.left);
+                if (index < node.line.size()) {
+                    return toToken(node.line, index, linesBefore + 1);
+                }
+                index -= node.line.size();
+                linesBefore++;
+                node = node.right;
+            }
+        }
+
+        @Override
+        public ListIterator<Token> listIterator(int index) {
+            if (index < 0 || index > size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            return new TokenIterator(index);
+        }
+
+        private final class TokenIterator implements ListIterator<Token> {
+            private int nextIndex;
+            private int lineIndex = -1; // line holding tokens from lineStart, -1 before any is looked up
+            private int lineStart;
+            private TokenBuffer line;
+
+            private TokenIterator(int nextIndex) {
+                this.nextIndex = nextIndex;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextIndex < size();
+            }
+
+            @Override
+            public Token next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return tokenAt(nextIndex++);
+            }
+
+            @Override
+            public boolean hasPrevious() {
+                return nextIndex > 0;
+            }
+
+            @Override
+            public Token previous() {
+                if (!hasPrevious()) {
+                    throw new NoSuchElementException();
+                }
+                return tokenAt(--nextIndex);
+            }
+
+            @Override
+            public int nextIndex() {
+                return nextIndex;
+            }
+
+            @Override
+            public int previousIndex() {
+                return nextIndex - 1;
+            }
+
+            private Token tokenAt(int index) {
+                if (lineIndex == -1 || index < lineStart || index >= lineStart + line.size()) {
+                    moveToLineOf(index);
+                }
+                return toToken(line, index - lineStart, lineIndex + 1);
+            }
+
+            private void moveToLineOf(int index) {
+                Node node = root;
+                int linesBefore = 0;
+                int tokensBefore = 0;
+                while (true) {
+                    int leftTokens = tokenCount(node.left);
+                    if (index - tokensBefore < leftTokens) {
+                        node = node.left;
+                        continue;
+                    }
+                    tokensBefore += leftTokens;
+                    linesBefore += lineCount(node.left);
+                    if (index - tokensBefore < node.line.size()) {
+                        lineIndex = linesBefore;
+                        lineStart = tokensBefore;
+                        line = node.line;
+                        return;
+                    }
+                    tokensBefore += node.line.size();
+                    linesBefore++;
+                    node = node.right;
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void set(Token token) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void add(Token token) {
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.*;
+import com.kw.parserProject.utility.IntList;
+import com.kw.parserProject.utility.SymbolSet;
+
+import java.util.*;
+
+// liveness analysis of LivenessChecker kept up to date while statements of the program are replaced.
+// every statement and statement list keeps a summary of its effect on live variables: live before = generated
+// + (live after - killed). summaries of a loop don't depend on how many times it runs, so loops need no fixed point
+// iteration. after an edit only summaries of the changed statements and their enclosing lists are computed again,
+// and live variables are propagated only into statements whose live-out set changed - an edit inside a loop body
+// that doesn't change what the body reads costs time proportional to that body, not to the whole program
+public class IncrementalLivenessChecker {
+    private final Block program = new Block(null);
+    private final List<Statement> statements;
+    // first occurrence of each statement, same statement object may be used in more places of the program
+    private final Map<Statement, Node> occurrences = new IdentityHashMap<>();
+    private final NavigableSet<Node> unusedAssignments = new TreeSet<>(
+            Comparator.comparingInt((Node node) -> node.statement.getLineNumber()).thenComparingLong(node -> node.id));
+    private long nextId = 0;
+    private int analyzedStatements = 0;
+
+    public IncrementalLivenessChecker(Program program) {
+        statements = new ArrayList<>(program.statements());
+        this.program.nodes = new Node[statements.size()];
+        for (int i = 0; i < statements.size(); i++) {
+            this.program.nodes[i] = build(statements.get(i), this.program, i);
+        }
+        propagate(this.program, new BitSet());
+    }
+
+    // program with all updates applied, statements enclosing a replaced one are created again like by the parser
+    public Program program() {
+        return new Program(List.copyOf(statements));
+    }
+
+    // unused assignments ordered by their line numbers
+    public List<Statement> getUnusedStatements() {
+        return unusedAssignments.stream().map(node -> node.statement).toList();
+    }
+
+    // keys are statements of the current program, found by identity and replaced everywhere they occur.
+    // returns unused assignments of the changed program
+    public List<Statement> update(Map<Statement, Statement> changedStatements) {
+        List<Node> replacedNodes = new ArrayList<>();
+        List<Statement> replacements = new ArrayList<>();
+        for (Map.Entry<Statement, Statement> change : changedStatements.entrySet()) {
+            Node occurrence = occurrences.get(change.getKey());
+            if (occurrence == null) {
+                throw new IllegalArgumentException("Statement is not part of analysed program: " + change.getKey());
+            }
+            for (; occurrence != null; occurrence = occurrence.nextOccurrence) {
+                replacedNodes.add(occurrence);
+                replacements.add(change.getValue());
+            }
+        }
+
+        analyzedStatements = 0;
+        for (int i = 0; i < replacedNodes.size(); i++) {
+            Node replaced = replacedNodes.get(i);
+            // statements inside of another replaced statement are gone already
+            if (!replaced.removed) {
+                remove(replaced);
+                Node replacement = build(replacements.get(i), replaced.block, replaced.index);
+                replaced.block.nodes[replaced.index] = replacement;
+                markChanged(replacement);
+            }
+        }
+        summarizeChanged(program);
+        propagate(program, new BitSet());
+        return getUnusedStatements();
+    }
+
+    // statements whose live-out set was computed by the last update
+    int analyzedStatements() {
+        return analyzedStatements;
+    }
+
+    // statements are built with an explicit stack of enclosing statements, deeply nested programs don't overflow
+    // the call stack
+    private Node build(Statement statement, Block block, int index) {
+        List<PendingNode> stack = new ArrayList<>();
+        Node root = node(statement, block, index, stack);
+        while (!stack.isEmpty()) {
+            PendingNode pending = stack.getLast();
+            Node node = pending.node;
+            if (pending.block == node.blocks.length) {
+                stack.removeLast();
+                summarize(node, node.generated, node.killed);
+                register(node);
+                continue;
+            }
+            List<Statement> statements = pending.statements.get(pending.block);
+            Block current = node.blocks[pending.block];
+            if (current == null) {
+                current = new Block(node);
+                current.nodes = new Node[statements.size()];
+                node.blocks[pending.block] = current;
+            }
+            if (pending.index == statements.size()) {
+                summarize(current);
+                pending.block++;
+                pending.index = 0;
+                continue;
+            }
+            current.nodes[pending.index] = node(statements.get(pending.index), current, pending.index, stack);
+            pending.index++;
+        }
+        return root;
+    }
+
+    // assignments are built right away, statements with sub statements are left on the stack to be built
+    private Node node(Statement statement, Block block, int index, List<PendingNode> stack) {
+        return switch (statement) {
+            case Assignment assignment -> {
+                Node assignmentNode = new Node(nextId++, statement, block, index, new Block[0]);
+                addAll(assignmentNode.generated, assignment.expression().readSymbolSet());
+                assignmentNode.killed.set(assignment.writeSymbolId());
+                register(assignmentNode);
+                yield assignmentNode;
+            }
+            case IfStatement ifStatement -> {
+                Node ifNode = new Node(nextId++, statement, block, index, new Block[2]);
+                stack.add(new PendingNode(ifNode, List.of(ifStatement.ifClauseStatements(), ifStatement.elseClauseStatements())));
+                yield ifNode;
+            }
+            case WhileStatement whileStatement -> {
+                Node whileNode = new Node(nextId++, statement, block, index, new Block[1]);
+                stack.add(new PendingNode(whileNode, List.of(whileStatement.statements())));
+                yield whileNode;
+            }
+            case null -> throw new IllegalArgumentException("Null statement given for analysis");
+            default -> throw new IllegalArgumentException("Undefined statement type: " + statement);
+        };
+    }
+
+    private void remove(Node node) {
+        List<Node> stack = new ArrayList<>();
+        stack.add(node);
+        while (!stack.isEmpty()) {
+            Node removed = stack.removeLast();
+            removed.removed = true;
+            unusedAssignments.remove(removed);
+            unregister(removed);
+            for (Block block : removed.blocks) {
+                stack.addAll(Arrays.asList(block.nodes));
+            }
+        }
+    }
+
+    private void register(Node node) {
+        node.nextOccurrence = occurrences.put(node.statement, node);
+    }
+
+    private void unregister(Node node) {
+        Node first = occurrences.get(node.statement);
+        if (first == node) {
+            if (node.nextOccurrence == null) {
+                occurrences.remove(node.statement);
+            } else {
+                occurrences.put(node.statement, node.nextOccurrence);
+            }
+        } else {
+            Node previous = first;
+            while (previous.nextOccurrence != node) {
+                previous = previous.nextOccurrence;
+            }
+            previous.nextOccurrence = node.nextOccurrence;
+        }
+    }
+
+    // marks the node and all statements enclosing it, their lists remember positions of changed statements
+    private static void markChanged(Node node) {
+        while (node != null && !node.changed) {
+            node.changed = true;
+            node.block.changedIndices.add(node.index);
+            node = node.block.owner;
+        }
+    }
+
+    // computes summaries of changed statements again, lists are visited with an explicit stack. a list is finished
+    // before the statement enclosing it, which learns whether any of its lists changed
+    private void summarizeChanged(Block root) {
+        List<PendingSummary> stack = new ArrayList<>();
+        stack.add(new PendingSummary(root));
+        while (!stack.isEmpty()) {
+            PendingSummary pending = stack.getLast();
+            Block block = pending.block;
+            if (pending.position == block.changedIndices.size()) {
+                stack.removeLast();
+                if (pending.changed && block.owner != null) {
+                    summarize(block);
+                }
+                if (!stack.isEmpty()) {
+                    stack.getLast().blocksChanged |= pending.changed;
+                }
+                continue;
+            }
+            Node node = block.nodes[block.changedIndices.get(pending.position)];
+            // new statements have their summaries computed already
+            if (node.liveOut != null && pending.nodeBlock < node.blocks.length) {
+                stack.add(new PendingSummary(node.blocks[pending.nodeBlock]));
+                pending.nodeBlock++;
+                continue;
+            }
+            pending.changed |= node.liveOut == null || summarizeChanged(node, pending.blocksChanged);
+            if (block == program) {
+                statements.set(node.index, node.statement);
+            }
+            pending.position++;
+            pending.nodeBlock = 0;
+            pending.blocksChanged = false;
+        }
+    }
+
+    // lists of the statement have their summaries computed already, returns true when the summary changed
+    private boolean summarizeChanged(Node node, boolean blocksChanged) {
+        rebuild(node);
+        if (!blocksChanged) {
+            return false;
+        }
+        BitSet generated = new BitSet();
+        BitSet killed = new BitSet();
+        summarize(node, generated, killed);
+        if (generated.equals(node.generated) && killed.equals(node.killed)) {
+            return false;
+        }
+        node.generated = generated;
+        node.killed = killed;
+        return true;
+    }
+
+    private void rebuild(Node node) {
+        Statement statement = switch (node.statement) {
+            case IfStatement ifStatement -> new IfStatement(ifStatement.condition(), statements(node.blocks[0]),
+                    statements(node.blocks[1]), ifStatement.lineNumber());
+            case WhileStatement whileStatement ->
+                    new WhileStatement(whileStatement.condition(), statements(node.blocks[0]), whileStatement.lineNumber());
+            default -> throw new IllegalStateException("Statement without sub statements: " + node.statement);
+        };
+        unregister(node);
+        node.statement = statement;
+        register(node);
+    }
+
+    private static List<Statement> statements(Block block) {
+        return Arrays.stream(block.nodes).map(node -> node.statement).toList();
+    }
+
+    private static void summarize(Block block) {
+        BitSet generated = new BitSet();
+        BitSet killed = new BitSet();
+        // statements are added in front of the summary of statements following them
+        for (int i = block.nodes.length - 1; i >= 0; i--) {
+            Node node = block.nodes[i];
+            generated.andNot(node.killed);
+            generated.or(node.generated);
+            killed.or(node.killed);
+        }
+        block.generated = generated;
+        block.killed = killed;
+    }
+
+    private static void summarize(Node node, BitSet generated, BitSet killed) {
+        switch (node.statement) {
+            case IfStatement ifStatement -> {
+                // condition and whatever either branch reads, only variables written in both branches are killed
+                addAll(generated, ifStatement.condition().readSymbolSet());
+                generated.or(node.blocks[0].generated);
+                generated.or(node.blocks[1].generated);
+                killed.or(node.blocks[0].killed);
+                killed.and(node.blocks[1].killed);
+            }
+            case WhileStatement whileStatement -> {
+                // body may not run at all, so nothing is killed
+                addAll(generated, whileStatement.condition().readSymbolSet());
+                generated.or(node.blocks[0].generated);
+            }
+            default -> throw new IllegalStateException("Statement without sub statements: " + node.statement);
+        }
+    }
+
+    // lists of analysed statements are left on a stack, they don't depend on each other or on statements following
+    // their enclosing statement
+    private void propagate(Block root, BitSet liveOut) {
+        List<PendingPropagation> stack = new ArrayList<>();
+        stack.add(new PendingPropagation(root, liveOut));
+        while (!stack.isEmpty()) {
+            PendingPropagation pending = stack.removeLast();
+            propagate(pending.block(), pending.liveOut(), stack);
+        }
+    }
+
+    // liveOut holds variables live after the last statement of the list. statements are visited from the last
+    // changed one backwards, until live variables before a statement are the same as before the edit
+    private void propagate(Block block, BitSet liveOut, List<PendingPropagation> stack) {
+        Node[] nodes = block.nodes;
+        // sorted when summaries were computed
+        int[] changedIndices = block.changedIndices.toArray();
+        int changed = changedIndices.length - 1;
+        block.changedIndices.clear();
+        if (nodes.length == 0) {
+            return;
+        }
+
+        int index;
+        BitSet live;
+        if (!liveOut.equals(nodes[nodes.length - 1].liveOut)) {
+            index = nodes.length - 1;
+            live = liveOut;
+        } else if (changed >= 0) {
+            index = changedIndices[changed];
+            live = index == nodes.length - 1 ? liveOut : liveIn(nodes[index + 1]);
+        } else {
+            return;
+        }
+
+        while (index >= 0) {
+            while (changed >= 0 && changedIndices[changed] >= index) {
+                changed--;
+            }
+            Node node = nodes[index];
+            if (node.changed || !live.equals(node.liveOut)) {
+                node.liveOut = live;
+                analyze(node, stack);
+                node.changed = false;
+            }
+            BitSet liveIn = liveIn(node);
+            index--;
+            if (index >= 0 && !nodes[index].changed && liveIn.equals(nodes[index].liveOut)) {
+                if (changed < 0) {
+                    return;
+                }
+                index = changedIndices[changed];
+                liveIn = liveIn(nodes[index + 1]);
+            }
+            live = liveIn;
+        }
+    }
+
+    private void analyze(Node node, List<PendingPropagation> stack) {
+        analyzedStatements++;
+        switch (node.statement) {
+            case Assignment assignment -> {
+                boolean unused = !node.liveOut.get(assignment.writeSymbolId());
+                if (unused != node.unused) {
+                    node.unused = unused;
+                    if (unused) {
+                        unusedAssignments.add(node);
+                    } else {
+                        unusedAssignments.remove(node);
+                    }
+                }
+            }
+            case IfStatement _ -> {
+                stack.add(new PendingPropagation(node.blocks[0], node.liveOut));
+                stack.add(new PendingPropagation(node.blocks[1], node.liveOut));
+            }
+            case WhileStatement whileStatement -> {
+                // after the body the condition is checked again, so variables live at the condition are live
+                // at the end of the body - whatever is read by the body, the condition or after the loop
+                BitSet live = (BitSet) node.liveOut.clone();
+                live.or(node.blocks[0].generated);
+                addAll(live, whileStatement.condition().readSymbolSet());
+                stack.add(new PendingPropagation(node.blocks[0], live));
+            }
+            default -> throw new IllegalStateException("Undefined statement type: " + node.statement);
+        }
+    }
+
+    private static BitSet liveIn(Node node) {
+        BitSet live = (BitSet) node.liveOut.clone();
+        live.andNot(node.killed);
+        live.or(node.generated);
+        return live;
+    }
+
+    private static void addAll(BitSet bits, SymbolSet symbolIds) {
+        for (int symbolId = symbolIds.nextSymbol(0); symbolId != -1; symbolId = symbolIds.nextSymbol(symbolId + 1)) {
+            bits.set(symbolId);
+        }
+    }
+
+    private static void sortDistinct(IntList values) {
+        int[] sorted = values.toArray();
+        Arrays.sort(sorted);
+        values.clear();
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                values.add(sorted[i]);
+            }
+        }
+    }
+
+    // one occurrence of a statement in the program
+    private static final class Node {
+        private final long id;
+        private Statement statement;
+        private final Block block;
+        private final int index;
+        private final Block[] blocks; // body of 'while', both clauses of 'if'
+        private BitSet generated = new BitSet(); // read before written
+        private BitSet killed = new BitSet(); // written on every path
+        private BitSet liveOut; // null until the statement is analysed, never modified once set
+        private boolean changed;
+        private boolean unused;
+        private boolean removed;
+        private Node nextOccurrence;
+
+        private Node(long id, Statement statement, Block block, int index, Block[] blocks) {
+            this.id = id;
+            this.statement = statement;
+            this.block = block;
+            this.index = index;
+            this.blocks = blocks;
+        }
+    }
+
+    private static final class Block {
+        private final Node owner; // null for top level statements
+        private Node[] nodes;
+        private BitSet generated = new BitSet();
+        private BitSet killed = new BitSet();
+        private IntList changedIndices = new IntList(0);
+
+        private Block(Node owner) {
+            this.owner = owner;
+        }
+    }
+
+    // statement whose lists are being built, statements of list 'block' are built up to 'index'
+    private static final class PendingNode {
+        private final Node node;
+        private final List<List<Statement>> statements;
+        private int block;
+        private int index;
+
+        private PendingNode(Node node, List<List<Statement>> statements) {
+            this.node = node;
+            this.statements = statements;
+        }
+    }
+
+    // list whose changed statements are summarized up to 'position', lists of the statement at that position are
+    // visited up to 'nodeBlock'
+    private static final class PendingSummary {
+        private final Block block;
+        private int position;
+        private int nodeBlock;
+        private boolean blocksChanged; // any list of the statement at 'position' changed
+        private boolean changed; // any statement of the list changed
+
+        private PendingSummary(Block block) {
+            this.block = block;
+            sortDistinct(block.changedIndices);
+        }
+    }
+
+    private record PendingPropagation(Block block, BitSet liveOut) {
+    }
+}
@@ -0,0 +1,524 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Assignment;
+import com.kw.parserProject.statements.IfStatement;
+import com.kw.parserProject.statements.Statement;
+import com.kw.parserProject.statements.WhileStatement;
+import com.kw.parserProject.tokens.Token;
+import com.kw.parserProject.tokens.TokenKind;
+import com.kw.parserProject.tokens.TokenList;
+import com.kw.parserProject.tokens.TokenSource;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// keeps the last parsed program together with token spans of its statements, so that after an edit of the token
+// stream only statements of the innermost statement list enclosing the edit are parsed again. statements before
+// the edit and statements whose tokens follow it unchanged are reused as they are.
+// every statement list is a tree ordered by position of statements, statements around the edit are found by walking
+// down the tree and an edit creates new nodes on paths to the edited statements only. line numbers are shifted by
+// nodes for their whole subtree relative to their parent, so when an edit moves following tokens to other lines,
+// only shifts of nodes next to the edit change. statements with shifted line numbers are created when requested
+public class IncrementalParser {
+    private final Parser parser;
+    private Program program = new Program(List.of());
+    private Node root;
+    private int tokenCount = 0;
+
+    public IncrementalParser(Parser parser) {
+        this.parser = parser;
+    }
+
+    public Program program() {
+        return program;
+    }
+
+    public Program parse(List<Token> tokens) {
+        return parse(new TokenList(tokens));
+    }
+
+    public Program parse(TokenSource tokens) {
+        List<StatementSpan> parsedSpans = new ArrayList<>();
+        Program parsed = parser.parseWithSpans(tokens, parsedSpans);
+        root = build(parsed.statements(), parsedSpans);
+        program = parsed;
+        tokenCount = tokens.size();
+        return parsed;
+    }
+
+    public Program reparse(List<Token> tokens, int editStart, int oldEditEnd, int newEditEnd) {
+        return reparse(new TokenList(tokens), editStart, oldEditEnd, newEditEnd);
+    }
+
+    // tokens from editStart (inclusive) to oldEditEnd (exclusive) of the previously parsed stream were replaced
+    // by tokens from editStart to newEditEnd of given stream. when the edited program is malformed,
+    // the same error as from a full parse is thrown and the previous program is kept
+    public Program reparse(TokenSource tokens, int editStart, int oldEditEnd, int newEditEnd) {
+        int shift = newEditEnd - oldEditEnd;
+        if (editStart < 0 || editStart > oldEditEnd || oldEditEnd > tokenCount || editStart > newEditEnd) {
+            throw new IllegalArgumentException("Edited range is out of bounds: " + editStart + " - " + oldEditEnd);
+        }
+        if (tokens.size() != tokenCount + shift) {
+            throw new IllegalArgumentException("Expected " + (tokenCount + shift) + " tokens after the edit, got: " + tokens.size());
+        }
+
+        StatementList rootList = new StatementList(root, 0, tokenCount, null, null, false);
+        int lineShift = lineShift(tokens, rootList, oldEditEnd, shift);
+        StatementList list = innermostList(tokens, rootList, editStart, oldEditEnd);
+
+        try {
+            while (true) {
+                Node reparsed = reparseList(tokens, list, editStart, oldEditEnd, shift, lineShift);
+                if (reparsed != null) {
+                    root = replaceInAncestors(list, reparsed, shift, lineShift);
+                    program = new Program(new Statements(root, 0));
+                    tokenCount = tokens.size();
+                    return program;
+                }
+                if (list.parent == null) {
+                    break;
+                }
+                // structure of enclosing statement changed, whole statement is treated as edited
+                editStart = list.enclosing.start;
+                oldEditEnd = list.enclosing.start + list.enclosing.entry.length;
+                list = list.parent;
+            }
+        } catch (SyntaxException e) {
+            // full parse reports the error exactly as without previous program
+        }
+        return parse(tokens);
+    }
+
+    // new statements of given list, null when there are none or they do not end exactly where the list ended before the edit
+    private Node reparseList(TokenSource tokens, StatementList list, int editStart, int oldEditEnd, int shift, int lineShift) {
+        // statements ending right before the edit are parsed again when the edit continues their expression
+        boolean continuesExpression = editStart < tokens.size() && tokens.kind(editStart) == TokenKind.OPERATOR;
+        Boundary kept = endingBy(list, continuesExpression ? editStart - 1 : editStart);
+
+        // old statements following the edit are reused once parsing gets to their shifted start
+        List<Entry> parsed = new ArrayList<>();
+        Node following = null;
+        int position = kept.position;
+        int newListEnd = list.end + shift;
+        while (true) {
+            Boundary next = startingBefore(list, Math.max(oldEditEnd, position - shift));
+            if (next.count < size(list.statements) && next.position + shift == position) {
+                following = withShift(split(list.statements, next.count).right, lineShift);
+                break;
+            }
+            if (position == newListEnd) {
+                break;
+            }
+            if (position > newListEnd) {
+                return null;
+            }
+            List<StatementSpan> spans = new ArrayList<>(1);
+            Statement statement = parser.parseStatement(tokens, position, spans);
+            if (statement == null) {
+                return null;
+            }
+            parsed.add(entry(statement, spans.getFirst()));
+            position += spans.getFirst().length();
+        }
+        return merge(merge(split(list.statements, kept.count).left, build(parsed, 0, parsed.size())), following);
+    }
+
+    // innermost statement list containing the edit, without touching its opening or closing tokens
+    private StatementList innermostList(TokenSource tokens, StatementList root, int editStart, int oldEditEnd) {
+        StatementList list = root;
+        descend:
+        while (true) {
+            Boundary before = startingBefore(list, editStart);
+            if (before.count == 0) {
+                return list;
+            }
+            Located statement = statement(list, before.count - 1);
+            if (statement.start + statement.entry.length <= editStart) {
+                return list;
+            }
+            for (StatementList nested : nestedLists(list, statement)) {
+                // condition of a block would continue with an operator inserted right after it
+                boolean continuesCondition = editStart == nested.start && !nested.elseClause
+                        && editStart < tokens.size() && tokens.kind(editStart) == TokenKind.OPERATOR;
+                if (editStart >= nested.start && oldEditEnd <= nested.end && !continuesCondition) {
+                    list = nested;
+                    continue descend;
+                }
+            }
+            return list;
+        }
+    }
+
+    // number of lines the tokens after the edit moved by, taken from the first statement parsed from them before
+    private int lineShift(TokenSource tokens, StatementList root, int oldEditEnd, int shift) {
+        StatementList list = root;
+        Located following = null;
+        search:
+        while (true) {
+            Boundary before = startingBefore(list, oldEditEnd);
+            if (before.count < size(list.statements)) {
+                following = statement(list, before.count);
+            }
+            if (before.count == 0) {
+                break;
+            }
+            Located enclosing = statement(list, before.count - 1);
+            if (enclosing.start + enclosing.entry.length <= oldEditEnd) {
+                break;
+            }
+            // statement contains the edit end, the first statement after it is nested in it or follows it
+            List<StatementList> nestedLists = nestedLists(list, enclosing);
+            for (int j = nestedLists.size() - 1; j >= 0; j--) {
+                StatementList nested = nestedLists.get(j);
+                if (nested.start >= oldEditEnd && nested.statements != null) {
+                    following = statement(nested, 0);
+                }
+            }
+            for (StatementList nested : nestedLists) {
+                if (nested.start < oldEditEnd && oldEditEnd < nested.end) {
+                    list = nested;
+                    continue search;
+                }
+            }
+            break;
+        }
+        if (following == null) {
+            return 0;
+        }
+        return tokens.lineNumber(following.start + shift) - following.entry.statement.getLineNumber() - following.lineShift;
+    }
+
+    // statement lists nested directly in given statement, in order of their tokens
+    private static List<StatementList> nestedLists(StatementList list, Located statement) {
+        Entry entry = statement.entry;
+        int bodyStart = statement.start + entry.headerLength;
+        int end = statement.start + entry.length - 1;
+        if (entry.statement instanceof WhileStatement) {
+            return List.of(new StatementList(withShift(entry.firstClause, statement.lineShift), bodyStart, end, list, statement, false));
+        }
+        if (entry.statement instanceof IfStatement) {
+            int ifClauseEnd = bodyStart + tokenCount(entry.firstClause);
+            StatementList ifClause = new StatementList(withShift(entry.firstClause, statement.lineShift), bodyStart, ifClauseEnd, list, statement, false);
+            if (entry.secondClause == null) {
+                return List.of(ifClause);
+            }
+            // 'else' keyword separates both sections
+            return List.of(ifClause, new StatementList(withShift(entry.secondClause, statement.lineShift), ifClauseEnd + 1, end, list, statement, true));
+        }
+        return List.of();
+    }
+
+    // rebuilds statements enclosing the reparsed list, up to the top-level list. statements following the edit
+    // are moved by lineShift lines
+    private static Node replaceInAncestors(StatementList list, Node reparsed, int shift, int lineShift) {
+        while (list.parent != null) {
+            Located enclosing = list.enclosing;
+            Entry entry = enclosing.entry;
+            Node firstClause = list.elseClause ? withShift(entry.firstClause, enclosing.lineShift) : reparsed;
+            Node secondClause = list.elseClause ? reparsed : withShift(entry.secondClause, enclosing.lineShift + lineShift);
+
+            Statement statement;
+            if (entry.statement instanceof WhileStatement whileStatement) {
+                statement = new WhileStatement(whileStatement.condition(), new Statements(firstClause, 0),
+                        whileStatement.lineNumber() + enclosing.lineShift);
+            } else {
+                IfStatement ifStatement = (IfStatement) entry.statement;
+                statement = new IfStatement(ifStatement.condition(), new Statements(firstClause, 0),
+                        new Statements(secondClause, 0), ifStatement.lineNumber() + enclosing.lineShift);
+            }
+
+            Node replaced = new Node(new Entry(statement, entry.length + shift, entry.headerLength, firstClause, secondClause), null, null, 0);
+            Split before = split(list.parent.statements, enclosing.index);
+            Node after = split(before.right, 1).right;
+            reparsed = merge(merge(before.left, replaced), withShift(after, lineShift));
+            list = list.parent;
+        }
+        return reparsed;
+    }
+
+    // statement at given index of the list, with its position and line shift
+    private static Located statement(StatementList list, int index) {
+        Node node = list.statements;
+        int start = list.start;
+        int lineShift = 0;
+        int remaining = index;
+        while (true) {
+            lineShift += node.lineShift;
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize) {
+                return new Located(node.entry, index, start + tokenCount(node.left), lineShift);
+            } else {
+                remaining -= leftSize + 1;
+                start += tokenCount(node.left) + node.entry.length;
+                node = node.right;
+            }
+        }
+    }
+
+    // statements of the list starting before given position, with the position the next one starts at
+    private static Boundary startingBefore(StatementList list, int position) {
+        Node node = list.statements;
+        int count = 0;
+        int start = list.start;
+        while (node != null) {
+            int nodeStart = start + tokenCount(node.left);
+            if (nodeStart < position) {
+                count += size(node.left) + 1;
+                start = nodeStart + node.entry.length;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return new Boundary(count, start);
+    }
+
+    // statements of the list ending at or before given position, with the position the last of them ends at
+    private static Boundary endingBy(StatementList list, int position) {
+        Node node = list.statements;
+        int count = 0;
+        int start = list.start;
+        while (node != null) {
+            int nodeEnd = start + tokenCount(node.left) + node.entry.length;
+            if (nodeEnd <= position) {
+                count += size(node.left) + 1;
+                start = nodeEnd;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return new Boundary(count, start);
+    }
+
+    // tree of given statements, statements nested in them are turned into trees first. statement lists waiting
+    // for their nested lists are kept on a stack, so that deeply nested programs don't overflow the call stack
+    private static Node build(List<Statement> statements, List<StatementSpan> spans) {
+        List<PendingList> pendingLists = new ArrayList<>();
+        PendingList list = new PendingList(statements, spans);
+        while (true) {
+            if (list.entries.size() == list.statements.size()) {
+                Node tree = build(list.entries, 0, list.entries.size());
+                if (pendingLists.isEmpty()) {
+                    return tree;
+                }
+                list = pendingLists.removeLast();
+                list.clauses.add(tree);
+                continue;
+            }
+
+            int index = list.entries.size();
+            Statement statement = list.statements.get(index);
+            StatementSpan span = list.spans.get(index);
+            List<StatementSpan> children = span.children();
+            PendingList nested = null;
+            if (statement instanceof WhileStatement whileStatement && list.clauses.isEmpty()) {
+                nested = new PendingList(whileStatement.statements(), children);
+            } else if (statement instanceof IfStatement ifStatement) {
+                int ifClauseSize = ifStatement.ifClauseStatements().size();
+                if (list.clauses.isEmpty()) {
+                    nested = new PendingList(ifStatement.ifClauseStatements(), children.subList(0, ifClauseSize));
+                } else if (list.clauses.size() == 1 && !ifStatement.elseClauseStatements().isEmpty()) {
+                    nested = new PendingList(ifStatement.elseClauseStatements(), children.subList(ifClauseSize, children.size()));
+                }
+            }
+            if (nested != null) {
+                pendingLists.add(list);
+                list = nested;
+                continue;
+            }
+            Node firstClause = list.clauses.isEmpty() ? null : list.clauses.getFirst();
+            Node secondClause = list.clauses.size() < 2 ? null : list.clauses.get(1);
+            list.entries.add(new Entry(statement, span.length(), span.headerLength(), firstClause, secondClause));
+            list.clauses.clear();
+        }
+    }
+
+    private static Entry entry(Statement statement, StatementSpan span) {
+        return build(List.of(statement), List.of(span)).entry;
+    }
+
+    private static Node build(List<Entry> entries, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node(entries.get(middle), build(entries, from, middle), build(entries, middle + 1, to), 0);
+    }
+
+    // first count statements go to the left part, both parts are shifted like the given tree
+    private static Split split(Node node, int count) {
+        if (node == null) {
+            return new Split(null, null);
+        }
+        int leftSize = size(node.left);
+        if (count <= leftSize) {
+            Split split = split(node.left, count);
+            return new Split(withShift(split.left, node.lineShift), new Node(node.entry, split.right, node.right, node.lineShift));
+        }
+        Split split = split(node.right, count - leftSize - 1);
+        return new Split(new Node(node.entry, node.left, split.left, node.lineShift), withShift(split.right, node.lineShift));
+    }
+
+    // root is picked with probability proportional to the size of its part, which keeps the tree balanced
+    // as if statements were inserted in random order
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (ThreadLocalRandom.current().nextInt(left.size + right.size) < left.size) {
+            return new Node(left.entry, left.left, merge(left.right, withShift(right, -left.lineShift)), left.lineShift);
+        }
+        return new Node(right.entry, merge(withShift(left, -right.lineShift), right.left), right.right, right.lineShift);
+    }
+
+    private static Node withShift(Node node, int lineShift) {
+        if (node == null || lineShift == 0) {
+            return node;
+        }
+        return new Node(node.entry, node.left, node.right, node.lineShift + lineShift);
+    }
+
+    // statement moved by given number of lines, statements nested in it are moved when they are requested
+    private static Statement shifted(Entry entry, int lineShift) {
+        if (lineShift == 0) {
+            return entry.statement;
+        }
+        if (entry.statement instanceof WhileStatement whileStatement) {
+            return new WhileStatement(whileStatement.condition(), new Statements(entry.firstClause, lineShift),
+                    whileStatement.lineNumber() + lineShift);
+        }
+        if (entry.statement instanceof IfStatement ifStatement) {
+            return new IfStatement(ifStatement.condition(), new Statements(entry.firstClause, lineShift),
+                    new Statements(entry.secondClause, lineShift), ifStatement.lineNumber() + lineShift);
+        }
+        Assignment assignment = (Assignment) entry.statement;
+        return new Assignment(assignment.writeVariable(), assignment.writeSymbolId(), assignment.expression(),
+                assignment.lineNumber() + lineShift);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int tokenCount(Node node) {
+        return node == null ? 0 : node.tokenCount;
+    }
+
+    // statement as parsed with the number of tokens it was parsed from, headerLength covers tokens before its first
+    // nested statement. clauses are trees of statements of 'while' body, or of 'if' and 'else' sections
+    private static final class Entry {
+        private final Statement statement;
+        private final int length;
+        private final int headerLength;
+        private final Node firstClause;
+        private final Node secondClause;
+
+        private Entry(Statement statement, int length, int headerLength, Node firstClause, Node secondClause) {
+            this.statement = statement;
+            this.length = length;
+            this.headerLength = headerLength;
+            this.firstClause = firstClause;
+            this.secondClause = secondClause;
+        }
+    }
+
+    // nodes are never modified. lineShift moves the statement of the node, statements nested in it and the whole
+    // subtree, on top of shifts of its ancestors
+    private static final class Node {
+        private final Entry entry;
+        private final Node left;
+        private final Node right;
+        private final int lineShift;
+        private final int size;
+        private final int tokenCount;
+
+        private Node(Entry entry, Node left, Node right, int lineShift) {
+            this.entry = entry;
+            this.left = left;
+            this.right = right;
+            this.lineShift = lineShift;
+            this.size = size(left) + 1 + size(right);
+            this.tokenCount = tokenCount(left) + entry.length + tokenCount(right);
+        }
+    }
+
+    // statements of a tree moved by given number of lines. moved statements are created once they are requested
+    // and kept, so that the same statement object is returned every time
+    private static final class Statements extends AbstractList<Statement> {
+        private final Node root;
+        private final int lineShift;
+        private final Map<Entry, Statement> shiftedStatements = new ConcurrentHashMap<>();
+
+        private Statements(Node root, int lineShift) {
+            this.root = root;
+            this.lineShift = lineShift;
+        }
+
+        @Override
+        public int size() {
+            return IncrementalParser.size(root);
+        }
+
+        @Override
+        public Statement get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            Node node = root;
+            int nodeShift = lineShift;
+            while (true) {
+                nodeShift += node.lineShift;
+                int leftSize = IncrementalParser.size(node.left);
+                if (index < leftSize) {
+                    node = node.left;
+                } else if (index == leftSize) {
+                    break;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            if (nodeShift == 0) {
+                return node.entry.statement;
+            }
+            int statementShift = nodeShift;
+            return shiftedStatements.computeIfAbsent(node.entry, entry -> shifted(entry, statementShift));
+        }
+    }
+
+    // statements of one list with lines shifted as before the edit, start and end are token positions of the list
+    // before the edit. enclosing is the statement of the parent list the list is nested in
+    private record StatementList(Node statements, int start, int end, StatementList parent, Located enclosing, boolean elseClause) {
+    }
+
+    private record Located(Entry entry, int index, int start, int lineShift) {
+    }
+
+    private record Boundary(int count, int position) {
+    }
+
+    private record Split(Node left, Node right) {
+    }
+
+    private static final class PendingList {
+        private final List<Statement> statements;
+        private final List<StatementSpan> spans;
+        private final List<Entry> entries = new ArrayList<>();
+        private final List<Node> clauses = new ArrayList<>(2);
+
+        private PendingList(List<Statement> statements, List<StatementSpan> spans) {
+            this.statements = statements;
+            this.spans = spans;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.utility.Printable;
+
+public enum Keyword implements Printable {
+    WHILE("while"),
+    ELSE("else"),
+    END("end"),
+    IF("if");
+
+    final String text;
+
+    Keyword(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public String print() {
+        return text;
+    }
+
+    public static Keyword resolve(String text) {
+        for (Keyword keyword : values()) {
+            if (keyword.text.equals(text)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+}
@@ -1,142 +1,306 @@
 package com.kw.parserProject;
 
 import com.kw.parserProject.tokens.*;
+import com.kw.parserProject.utility.AsciiByteSequence;
+import com.kw.parserProject.utility.ByteLineIterator;
+import com.kw.parserProject.utility.LineIterator;
+import com.kw.parserProject.utility.NumericLiterals;
+import com.kw.parserProject.utility.SourceLines;
 
-import java.util.LinkedList;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Lexer {
-    private static final List<String> RECOGNIZED_KEYWORDS = List.of("while", "else", "end", "if");
+    private final SymbolTable symbols;
+    private final CharacterScanner scanner; // null when characters are classified one at a time
+
+    // lexer with its own symbol table
+    public Lexer() {
+        this(new SymbolTable());
+    }
+
+    // variable tokens carry ids of their names interned in given table
+    public Lexer(SymbolTable symbols) {
+        this(symbols, null);
+    }
+
+    private Lexer(SymbolTable symbols, CharacterScanner scanner) {
+        this.symbols = symbols;
+        this.scanner = scanner;
+    }
+
+    // lexer skipping whitespace and digit runs with Vector API, whole vectors at once. the vectorized scanner is
+    // compiled only with 'vector-api' build profile and needs jdk.incubator.vector module (--add-modules),
+    // without them the returned lexer classifies characters one at a time like any other
+    public static Lexer withVectorizedScanning() {
+        return new Lexer(new SymbolTable(), VectorizedScanner.INSTANCE);
+    }
+
+    public boolean isVectorized() {
+        return scanner != null;
+    }
+
+    public SymbolTable symbolTable() {
+        return symbols;
+    }
 
     public List<Token> extractTokens(String programCode) {
-        List<String> lines = programCode.lines().toList();
-        List<Token> results = new LinkedList<>();
-        for (int i = 0; i < lines.size(); i++) {
-            List<Token> tokens = parseLine(lines.get(i));
-            int lineNumber = i + 1;
-            tokens.forEach(token -> token.addLineNumber(lineNumber));
-            results.addAll(tokens);
-        }
+        List<Token> results = new ArrayList<>();
+        tokenIterator(programCode).forEachRemaining(results::add);
         return results;
     }
 
-    List<Token> parseLine(String line) {
-        List<Token> tokens = new LinkedList<>();
+    public List<Token> extractTokens(Path programFile) throws IOException {
+        List<Token> results = new ArrayList<>();
+        tokenIterator(programFile).forEachRemaining(results::add);
+        return results;
+    }
 
-        char[] charArray = line.toCharArray();
-        int startingPos = 0;
+    public TokenBuffer extractTokenBuffer(CharSequence programCode) {
+        TokenBuffer tokenBuffer = new TokenBuffer(programCode);
+        fillTokenBuffer(tokenBuffer, new LineIterator(programCode), symbols, null);
+        return tokenBuffer;
+    }
 
-        while (startingPos != -1) {
-            startingPos = readNextToken(charArray, startingPos, tokens);
-        }
+    // diagnostics mode - errors are reported to given sink instead of being thrown,
+    // lexing continues right after the unrecognized character or malformed number
+    public TokenBuffer extractTokenBuffer(CharSequence programCode, DiagnosticSink diagnostics) {
+        TokenBuffer tokenBuffer = new TokenBuffer(programCode);
+        fillTokenBuffer(tokenBuffer, new LineIterator(programCode), symbols, diagnostics);
+        return tokenBuffer;
+    }
+
+    public TokenBuffer extractTokenBuffer(Path programFile) throws IOException {
+        // tokens point back into the mapped file by byte offsets
+        MappedByteBuffer mappedProgram = mapProgramFile(programFile);
+        TokenBuffer tokenBuffer = new TokenBuffer(new AsciiByteSequence(mappedProgram, 0, mappedProgram.limit()));
+        fillTokenBuffer(tokenBuffer, new ByteLineIterator(mappedProgram), symbols, null);
+        return tokenBuffer;
+    }
+
+    public Iterator<Token> tokenIterator(Path programFile) throws IOException {
+        // file is lexed straight from the mapped bytes, without reading it into a String first
+        return new TokenIterator(this, new ByteLineIterator(mapProgramFile(programFile)));
+    }
+
+    public Iterator<Token> tokenIterator(CharSequence programCode) {
+        return new TokenIterator(this, new LineIterator(programCode));
+    }
 
+    public Iterator<Token> tokenIterator(Reader programCode) {
+        // lines are pulled from the reader one at a time, so only the line being lexed is kept in memory
+        BufferedReader bufferedReader = programCode instanceof BufferedReader br ? br : new BufferedReader(programCode);
+        return new TokenIterator(this, bufferedReader.lines().iterator());
+    }
+
+    public Stream<Token> tokenStream(CharSequence programCode) {
+        return asStream(tokenIterator(programCode));
+    }
+
+    public Stream<Token> tokenStream(Reader programCode) {
+        return asStream(tokenIterator(programCode));
+    }
+
+    List<Token> parseLine(String line) {
+        List<Token> tokens = new ArrayList<>();
+        parseLine(line, tokens);
         return tokens;
     }
 
-    private int readNextToken(char[] input, int startingPos, List<Token> tokens) {
-        if (startingPos >= input.length) return -1;
-        char character = input[startingPos];
+    void parseLine(CharSequence line, Collection<Token> tokens) {
+        parseLine(line, (kind, start, end, ordinal) -> tokens.add(Token.of(kind, line, start, end, ordinal)));
+    }
 
-        if (Character.isWhitespace(character)) {
-            return startingPos + 1;
-        }
+    void parseLine(CharSequence line, TokenSink tokens) {
+        parseLine(line, symbols, tokens, 0, null);
+    }
+
+    // errors are thrown when no diagnostics sink is given
+    private void parseLine(CharSequence line, SymbolTable symbols, TokenSink tokens, int lineNumber, DiagnosticSink diagnostics) {
+        CharSequence input = scanner != null ? scanner.stage(line) : line;
+        int startingPos = 0;
 
-        if (Character.isDigit(character)) {
-            return readNumeric(input, startingPos, tokens);
+        while (startingPos != -1) {
+            try {
+                startingPos = readNextToken(input, startingPos, symbols, tokens);
+            } catch (SyntaxException e) {
+                if (diagnostics == null) {
+                    throw e;
+                }
+                diagnostics.report(Diagnostic.of(Diagnostic.Stage.LEXING, lineNumber, e));
+                startingPos = skipMalformedToken(input, e.getPosition());
+            }
         }
-        if (character >= 'a' && character <= 'z') {
-            return readCharOrKeyword(input, startingPos, tokens);
+    }
+
+    // returns number of lexed lines, tokens are numbered starting from the first given line
+    int fillTokenBuffer(TokenBuffer tokenBuffer, SourceLines lines, SymbolTable symbols, DiagnosticSink diagnostics) {
+        int lineNumber = 0;
+        while (lines.hasNext()) {
+            CharSequence line = lines.next();
+            int currentLineNumber = ++lineNumber;
+            parseLine(line, symbols, (kind, start, end, ordinal) ->
+                    tokenBuffer.add(kind, lines.sourceOffset(start), lines.sourceOffset(end), currentLineNumber, ordinal),
+                    currentLineNumber, diagnostics);
         }
-        Operator resolvedOperator = Operator.resolve(character);
-        if (resolvedOperator != null) {
-            tokens.add(new OperatorToken(resolvedOperator));
-            return startingPos + 1;
+        return lineNumber;
+    }
+
+    static MappedByteBuffer mapProgramFile(Path programFile) throws IOException {
+        // mapping stays valid after the channel is closed, it is released once the buffer gets collected
+        try (FileChannel channel = FileChannel.open(programFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Program file is too large to be mapped: " + programFile);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         }
-        if (character == '=') {
-            tokens.add(new AssignmentToken());
-            return startingPos + 1;
+    }
+
+    private static Stream<Token> asStream(Iterator<Token> tokens) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tokens, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private int readNextToken(CharSequence input, int startingPos, SymbolTable symbols, TokenSink tokens) {
+        int position = skipWhitespaces(input, startingPos);
+        if (position >= input.length()) return -1;
+
+        byte characterClass = LexerTable.characterClass(input.charAt(position));
+        return switch (characterClass) {
+            case LexerTable.DIGIT -> readNumeric(input, position, tokens);
+            case LexerTable.LETTER -> readIdentifierOrKeyword(input, position, symbols, tokens);
+            case LexerTable.OPERATOR, LexerTable.ASSIGNMENT, LexerTable.OPENING_BRACKET, LexerTable.CLOSING_BRACKET -> {
+                int ordinal = characterClass == LexerTable.OPERATOR ? LexerTable.operatorOrdinal(input.charAt(position)) : -1;
+                tokens.accept(LexerTable.singleCharacterTokenKind(characterClass), position, position + 1, ordinal);
+                yield position + 1;
+            }
+            default -> throw new SyntaxException("Cannot recognize token at position: " + position, position);
+        };
+    }
+
+    private int skipMalformedToken(CharSequence input, int position) {
+        // malformed numbers are skipped as a whole, any other character alone
+        if (LexerTable.characterClass(input.charAt(position)) != LexerTable.DIGIT) {
+            return position + 1;
         }
-        if (character == '(') {
-            tokens.add(new OpeningBracketToken());
-            return startingPos + 1;
+        int i = position;
+        while (i < input.length() && (LexerTable.characterClass(input.charAt(i)) == LexerTable.DIGIT
+                || LexerTable.characterClass(input.charAt(i)) == LexerTable.DECIMAL_SEPARATOR)) {
+            i++;
         }
-        if (character == ')') {
-            tokens.add(new ClosingBracketToken());
-            return startingPos + 1;
+        return i;
+    }
+
+    private int skipWhitespaces(CharSequence input, int startingPos) {
+        int position = scanner != null ? scanner.skipWhitespaces(input, startingPos) : startingPos;
+        while (position < input.length() && LexerTable.characterClass(input.charAt(position)) == LexerTable.WHITESPACE) {
+            position++;
         }
-        throw new IllegalArgumentException("Cannot recognize token at position: " + startingPos);
+        return position;
     }
 
-    private int readCharOrKeyword(char[] input, int startingPos, List<Token> tokens) {
-        // check for reserved keywords
-        int readKeywordResults = readReservedKeyword(input, startingPos, tokens);
-        if (readKeywordResults != -1) return readKeywordResults;
-        String variableName = readIdentifier(input, startingPos);
-        tokens.add(new VariableToken(variableName));
-        return startingPos + 1;
+    private int skipAsciiDigits(CharSequence input, int startingPos) {
+        int position = scanner != null ? scanner.skipAsciiDigits(input, startingPos) : startingPos;
+        char character;
+        while (position < input.length() && (character = input.charAt(position)) >= '0' && character <= '9') {
+            position++;
+        }
+        return position;
     }
 
-    private int readNumeric(char[] input, int startingPos, List<Token> tokens) {
-        StringBuilder stringBuilder = new StringBuilder();
+    private int readIdentifierOrKeyword(CharSequence input, int startingPos, SymbolTable symbols, TokenSink tokens) {
+        // whole word is read first, so keywords are recognized only when they are not a part of longer identifier
+        int end = readWord(input, startingPos);
+        int keywordOrdinal = readReservedKeyword(input, startingPos, end);
+        if (keywordOrdinal != -1) {
+            tokens.accept(TokenKind.KEYWORD, startingPos, end, keywordOrdinal);
+        } else {
+            tokens.accept(TokenKind.VARIABLE, startingPos, end, symbols.intern(input, startingPos, end));
+        }
+        return end;
+    }
 
+    private int readNumeric(CharSequence input, int startingPos, TokenSink tokens) {
         boolean encounteredDecimalSeparator = false;
         int i = startingPos;
-        while (i < input.length) {
-            char current = input[i];
+        while ((i = skipAsciiDigits(input, i)) < input.length()) {
+            byte characterClass = LexerTable.characterClass(input.charAt(i));
 
-            if (current == '.') {
+            if (characterClass == LexerTable.DECIMAL_SEPARATOR) {
                 if (encounteredDecimalSeparator) {
-                    throw new IllegalArgumentException("Multiple decimal separators found when attempting to parse a number");
+                    throw new SyntaxException("Multiple decimal separators found when attempting to parse a number", startingPos);
                 }
                 encounteredDecimalSeparator = true;
-            } else if (!Character.isDigit(current)) {
+            } else if (characterClass != LexerTable.DIGIT) {
                 break;
             }
-
-            stringBuilder.append(current);
             i++;
         }
 
-        String readNumber = stringBuilder.toString();
-        if (readNumber.endsWith(".")) {
-            throw new IllegalArgumentException("Encountering decimal number with separator, but without any numbers after it");
+        if (LexerTable.characterClass(input.charAt(i - 1)) == LexerTable.DECIMAL_SEPARATOR) {
+            throw new SyntaxException("Encountering decimal number with separator, but without any numbers after it", startingPos);
         }
 
-        tokens.add(new ConstantToken(stringBuilder.toString()));
+        float value = NumericLiterals.parseFloat(input, startingPos, i);
+        tokens.accept(TokenKind.CONSTANT, startingPos, i, Float.floatToRawIntBits(value));
         return i;
     }
 
-    private String readIdentifier(char[] input, int startingPos) {
-        int identifierLength = 0;
-        int readTokensLimit = 5; // to avoid reading extremely long identifier which we'll fail anyway
-        int lastIndex = startingPos;
-        while (identifierLength < readTokensLimit &&
-                input.length > lastIndex
-                && input[lastIndex] >= 'a' && input[lastIndex] <= 'z') {
-            lastIndex++;
-            identifierLength++;
+    private int readWord(CharSequence input, int startingPos) {
+        // identifiers start with a letter, followed by any letters and digits
+        int i = startingPos + 1;
+        while (i < input.length()) {
+            byte characterClass = LexerTable.characterClass(input.charAt(i));
+            if (characterClass != LexerTable.LETTER && characterClass != LexerTable.DIGIT) {
+                break;
+            }
+            i++;
         }
+        return i;
+    }
 
-        String identifier = new String(input, startingPos, identifierLength);
-        if (identifierLength != 1) {
-            throw new IllegalArgumentException("Identifiers are expected to be one-characters only, " +
-                    "encountered identifier starting with: " + identifier);
+    // keyword ordinal if the whole word is a reserved keyword, -1 otherwise
+    private int readReservedKeyword(CharSequence input, int startingPos, int end) {
+        // walk the keyword transition table as long as read letters form a prefix of any keyword
+        int state = LexerTable.KEYWORD_ROOT_STATE;
+        for (int i = startingPos; i < end; i++) {
+            char character = input.charAt(i);
+            if (LexerTable.characterClass(character) != LexerTable.LETTER) {
+                return -1;
+            }
+            state = LexerTable.nextKeywordState(state, character);
+            if (state == LexerTable.NO_STATE) {
+                return -1;
+            }
         }
-        return identifier;
+        return LexerTable.acceptedKeyword(state);
     }
 
-    private int readReservedKeyword(char[] input, int startingPos, List<Token> tokens) {
-        for (String recognizedKeyword : RECOGNIZED_KEYWORDS) {
-            int keywordLength = recognizedKeyword.length();
+    // loaded on first use of a vectorized lexer, null when the scanner is not compiled in or the module is missing
+    private static final class VectorizedScanner {
+        private static final CharacterScanner INSTANCE = load();
 
-            if (startingPos + keywordLength <= input.length) {
-                String keyword = new String(input, startingPos, keywordLength);
-                if (recognizedKeyword.equals(keyword)) {
-                    tokens.add(new KeywordToken(recognizedKeyword));
-                    return startingPos + keywordLength;
-                }
+        private static CharacterScanner load() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return null;
+            }
+            try {
+                return (CharacterScanner) Class.forName("com.kw.parserProject.VectorizedScanning").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
             }
         }
-        return -1;
     }
 }
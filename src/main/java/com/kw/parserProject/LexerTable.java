@@ -0,0 +1,115 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.TokenKind;
+
+import java.util.Arrays;
+
+// precomputed lookup tables driving the lexer: character classes for ASCII input
+// and a state-transition table recognizing reserved keywords, one letter at a time
+final class LexerTable {
+    static final byte OTHER = 0;
+    static final byte WHITESPACE = 1;
+    static final byte DIGIT = 2;
+    static final byte LETTER = 3;
+    static final byte DECIMAL_SEPARATOR = 4;
+    static final byte OPERATOR = 5;
+    static final byte ASSIGNMENT = 6;
+    static final byte OPENING_BRACKET = 7;
+    static final byte CLOSING_BRACKET = 8;
+
+    static final int KEYWORD_ROOT_STATE = 0;
+    static final int NO_STATE = -1;
+
+    private static final int ASCII_SIZE = 128;
+    private static final int ALPHABET_SIZE = 'z' - 'a' + 1;
+
+    private static final byte[] CHARACTER_CLASSES = new byte[ASCII_SIZE];
+    private static final byte[] OPERATOR_ORDINALS = new byte[ASCII_SIZE];
+    private static final int[] KEYWORD_TRANSITIONS;
+    private static final int[] ACCEPTED_KEYWORDS;
+
+    static {
+        for (char character = 0; character < ASCII_SIZE; character++) {
+            Operator operator = Operator.resolve(character);
+            OPERATOR_ORDINALS[character] = (byte) (operator == null ? -1 : operator.ordinal());
+            CHARACTER_CLASSES[character] = classify(character, operator);
+        }
+
+        // keyword trie - every state has a transition for each lowercase letter, NO_STATE if there is no such keyword prefix
+        int maxStates = 1;
+        for (Keyword keyword : Keyword.values()) {
+            maxStates += keyword.text.length();
+        }
+        int[] transitions = new int[maxStates * ALPHABET_SIZE];
+        int[] acceptedKeywords = new int[maxStates];
+        Arrays.fill(transitions, NO_STATE);
+        Arrays.fill(acceptedKeywords, -1);
+
+        int statesUsed = 1;
+        for (Keyword keyword : Keyword.values()) {
+            int state = KEYWORD_ROOT_STATE;
+            for (char character : keyword.text.toCharArray()) {
+                int transition = state * ALPHABET_SIZE + (character - 'a');
+                if (transitions[transition] == NO_STATE) {
+                    transitions[transition] = statesUsed++;
+                }
+                state = transitions[transition];
+            }
+            acceptedKeywords[state] = keyword.ordinal();
+        }
+        KEYWORD_TRANSITIONS = transitions;
+        ACCEPTED_KEYWORDS = acceptedKeywords;
+    }
+
+    private LexerTable() {
+    }
+
+    static byte characterClass(char character) {
+        if (character < ASCII_SIZE) {
+            return CHARACTER_CLASSES[character];
+        }
+        // outside ASCII only whitespaces and digits are accepted, same as Character methods define them
+        if (Character.isWhitespace(character)) return WHITESPACE;
+        if (Character.isDigit(character)) return DIGIT;
+        return OTHER;
+    }
+
+    // only valid for characters of OPERATOR class
+    static int operatorOrdinal(char character) {
+        return OPERATOR_ORDINALS[character];
+    }
+
+    // only valid for characters of LETTER class
+    static int nextKeywordState(int state, char letter) {
+        return KEYWORD_TRANSITIONS[state * ALPHABET_SIZE + (letter - 'a')];
+    }
+
+    // keyword ordinal if given state completes a keyword, -1 otherwise
+    static int acceptedKeyword(int state) {
+        return ACCEPTED_KEYWORDS[state];
+    }
+
+    static TokenKind singleCharacterTokenKind(byte characterClass) {
+        return switch (characterClass) {
+            case OPERATOR -> TokenKind.OPERATOR;
+            case ASSIGNMENT -> TokenKind.ASSIGNMENT;
+            case OPENING_BRACKET -> TokenKind.OPENING_BRACKET;
+            case CLOSING_BRACKET -> TokenKind.CLOSING_BRACKET;
+            default -> null;
+        };
+    }
+
+    private static byte classify(char character, Operator operator) {
+        if (operator != null) return OPERATOR;
+        if (Character.isWhitespace(character)) return WHITESPACE;
+        if (character >= '0' && character <= '9') return DIGIT;
+        if (character >= 'a' && character <= 'z') return LETTER;
+        return switch (character) {
+            case '.' -> DECIMAL_SEPARATOR;
+            case '=' -> ASSIGNMENT;
+            case '(' -> OPENING_BRACKET;
+            case ')' -> CLOSING_BRACKET;
+            default -> OTHER;
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.*;
+import com.kw.parserProject.utility.IntList;
+import com.kw.parserProject.utility.SymbolSet;
+
+import java.util.*;
+
+// reports assignments whose variable is dead right after them, computed by backward liveness analysis over
+// basic blocks of the control flow graph. liveness is computed one variable at a time with a worklist of blocks:
+// starting from blocks reading the variable before writing it, predecessors are visited until blocks writing it,
+// so loops are iterated to a fixed point in time proportional to blocks where the variable is live. live variables
+// are kept as lists of block and symbol pairs, so memory grows with the program and its live ranges, not with
+// blocks times variables. unlike UnusedStatementChecker, an assignment is unused only when no path reads it -
+// overwriting it in one branch of 'if' is not enough
+public class LivenessChecker {
+
+    // unused assignments ordered by their line numbers
+    List<Statement> getUnusedStatements(Program program) {
+        return getUnusedStatements(ControlFlowGraph.of(program));
+    }
+
+    List<Statement> getUnusedStatements(ControlFlowGraph graph) {
+        int blockCount = graph.blockCount();
+        int symbolCount = graph.symbolCount();
+
+        // variables read by a block before it writes them, and variables written by a block, grouped by variable
+        IntList useBlocks = new IntList();
+        IntList useSymbols = new IntList();
+        IntList definitionBlocks = new IntList();
+        IntList definitionSymbols = new IntList();
+        int[] usingBlocks = new int[symbolCount]; // last block found to use or define the variable
+        int[] definingBlocks = new int[symbolCount];
+        Arrays.fill(usingBlocks, -1);
+        Arrays.fill(definingBlocks, -1);
+        for (int block = 0; block < blockCount; block++) {
+            for (int action = graph.actionStart(block); action < graph.actionEnd(block); action++) {
+                SymbolSet readSymbols = graph.expression(action).readSymbolSet();
+                for (int symbolId = readSymbols.nextSymbol(0); symbolId != -1; symbolId = readSymbols.nextSymbol(symbolId + 1)) {
+                    if (definingBlocks[symbolId] != block && usingBlocks[symbolId] != block) {
+                        usingBlocks[symbolId] = block;
+                        useBlocks.add(block);
+                        useSymbols.add(symbolId);
+                    }
+                }
+                if (graph.statement(action) instanceof Assignment assignment && definingBlocks[assignment.writeSymbolId()] != block) {
+                    definingBlocks[assignment.writeSymbolId()] = block;
+                    definitionBlocks.add(block);
+                    definitionSymbols.add(assignment.writeSymbolId());
+                }
+            }
+        }
+        int[] useStarts = new int[symbolCount + 1];
+        int[] uses = ControlFlowGraph.groupByKey(useSymbols.toArray(), useBlocks.toArray(), useStarts);
+        int[] definitionStarts = new int[symbolCount + 1];
+        int[] definitions = ControlFlowGraph.groupByKey(definitionSymbols.toArray(), definitionBlocks.toArray(), definitionStarts);
+
+        // blocks are marked with the variable being propagated, so the marks are never cleared
+        int[] defining = new int[blockCount];
+        int[] liveIn = new int[blockCount];
+        int[] liveOut = new int[blockCount];
+        Arrays.fill(defining, -1);
+        Arrays.fill(liveIn, -1);
+        Arrays.fill(liveOut, -1);
+        IntList liveOutBlocks = new IntList();
+        IntList liveOutSymbols = new IntList();
+        IntList worklist = new IntList();
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            for (int i = definitionStarts[symbolId]; i < definitionStarts[symbolId + 1]; i++) {
+                defining[definitions[i]] = symbolId;
+            }
+            for (int i = useStarts[symbolId]; i < useStarts[symbolId + 1]; i++) {
+                liveIn[uses[i]] = symbolId;
+                worklist.add(uses[i]);
+            }
+            while (!worklist.isEmpty()) {
+                int block = worklist.pop();
+                for (int i = 0; i < graph.predecessorCount(block); i++) {
+                    int predecessor = graph.predecessor(block, i);
+                    if (liveOut[predecessor] != symbolId) {
+                        liveOut[predecessor] = symbolId;
+                        liveOutBlocks.add(predecessor);
+                        liveOutSymbols.add(symbolId);
+                        // variable stays live through blocks not writing it
+                        if (defining[predecessor] != symbolId && liveIn[predecessor] != symbolId) {
+                            liveIn[predecessor] = symbolId;
+                            worklist.add(predecessor);
+                        }
+                    }
+                }
+            }
+        }
+        int[] liveOutStarts = new int[blockCount + 1];
+        int[] liveOutByBlock = ControlFlowGraph.groupByKey(liveOutBlocks.toArray(), liveOutSymbols.toArray(), liveOutStarts);
+
+        List<Statement> unusedStatements = new ArrayList<>();
+        int[] liveAt = new int[symbolCount]; // block whose end is being walked back from, while the variable is live
+        Arrays.fill(liveAt, -1);
+        for (int block = 0; block < blockCount; block++) {
+            for (int i = liveOutStarts[block]; i < liveOutStarts[block + 1]; i++) {
+                liveAt[liveOutByBlock[i]] = block;
+            }
+            collectDeadAssignments(graph, block, liveAt, unusedStatements);
+        }
+        unusedStatements.sort(Comparator.comparing(HasLineNumber::getLineNumber));
+        return unusedStatements;
+    }
+
+    // variables live at the end of the block are marked with the block, assignments of the block are added
+    // in program order
+    private static void collectDeadAssignments(ControlFlowGraph graph, int block, int[] liveAt, List<Statement> unusedStatements) {
+        int firstUnused = unusedStatements.size();
+        for (int action = graph.actionEnd(block) - 1; action >= graph.actionStart(block); action--) {
+            if (graph.statement(action) instanceof Assignment assignment) {
+                if (liveAt[assignment.writeSymbolId()] != block) {
+                    unusedStatements.add(assignment);
+                }
+                liveAt[assignment.writeSymbolId()] = -1;
+            }
+            SymbolSet readSymbols = graph.expression(action).readSymbolSet();
+            for (int symbolId = readSymbols.nextSymbol(0); symbolId != -1; symbolId = readSymbols.nextSymbol(symbolId + 1)) {
+                liveAt[symbolId] = block;
+            }
+        }
+        Collections.reverse(unusedStatements.subList(firstUnused, unusedStatements.size()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.kw.parserProject;
+
+public enum NodeKind {
+    PROGRAM,
+    ASSIGNMENT,
+    WHILE,
+    IF,
+    BLOCK, // statements of a loop body or of a single section of 'if'
+    OPERATOR,
+    BRACKET,
+    VALUE,
+    VARIABLE
+}
@@ -10,6 +10,8 @@ public enum Operator implements Printable {
     LESS_THAN("<", 3),
     GREATER_THAN(">", 3);
 
+    static final int LOWEST_PRECEDENCE = 1;
+
     final String character;
     final int precedence; // higher - the better
 
@@ -0,0 +1,145 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.Token;
+import com.kw.parserProject.tokens.TokenBuffer;
+import com.kw.parserProject.utility.AsciiByteSequence;
+import com.kw.parserProject.utility.ByteLineIterator;
+import com.kw.parserProject.utility.LineIterator;
+import com.kw.parserProject.utility.SourceLines;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+// lexes large sources by splitting them into line-aligned chunks, lexed independently on a ForkJoin pool.
+// lexer is line oriented, so stitching chunks back in order gives the same tokens as sequential lexing
+public class ParallelLexer implements AutoCloseable {
+    private final Lexer lexer;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    // chunkSize is the approximate number of characters (bytes for files) per chunk, chunks are extended up to the closest line end
+    public ParallelLexer(Lexer lexer, int chunkSize, int parallelism) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size has to be positive, got: " + chunkSize);
+        }
+        this.lexer = lexer;
+        this.chunkSize = chunkSize;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public List<Token> extractTokens(CharSequence programCode) {
+        return extractTokenBuffer(programCode).toTokens();
+    }
+
+    public TokenBuffer extractTokenBuffer(CharSequence programCode) {
+        return lexInChunks(programCode, (start, end) -> new LineIterator(programCode, start, end));
+    }
+
+    public TokenBuffer extractTokenBuffer(Path programFile) throws IOException {
+        MappedByteBuffer mappedProgram = Lexer.mapProgramFile(programFile);
+        AsciiByteSequence source = new AsciiByteSequence(mappedProgram, 0, mappedProgram.limit());
+        return lexInChunks(source, (start, end) -> new ByteLineIterator(mappedProgram, start, end));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private TokenBuffer lexInChunks(CharSequence source, BiFunction<Integer, Integer, SourceLines> chunkLines) {
+        List<Future<LexedChunk>> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        while (chunkStart < source.length()) {
+            int start = chunkStart;
+            int end = findChunkEnd(source, start);
+            chunks.add(pool.submit(() -> lexChunk(source, chunkLines.apply(start, end))));
+            chunkStart = end;
+        }
+
+        // chunks are collected in order, so the first failed one carries the same error as sequential lexing would report
+        List<LexedChunk> lexedChunks = new ArrayList<>(chunks.size());
+        int totalSize = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            LexedChunk lexedChunk = awaitChunk(chunks, i);
+            lexedChunks.add(lexedChunk);
+            totalSize += lexedChunk.tokens().size();
+        }
+
+        // chunks intern variables into their own tables, ids are translated in source order,
+        // so that every name gets the same id as with sequential lexing
+        TokenBuffer tokenBuffer = new TokenBuffer(source, totalSize);
+        SymbolTable symbols = lexer.symbolTable();
+        int linesBefore = 0;
+        for (LexedChunk lexedChunk : lexedChunks) {
+            SymbolTable chunkSymbols = lexedChunk.symbols();
+            int[] symbolIds = new int[chunkSymbols.size()];
+            for (int i = 0; i < symbolIds.length; i++) {
+                symbolIds[i] = symbols.intern(chunkSymbols.name(i));
+            }
+            tokenBuffer.append(lexedChunk.tokens(), linesBefore, symbolIds);
+            linesBefore += lexedChunk.lineCount();
+        }
+        return tokenBuffer;
+    }
+
+    private LexedChunk lexChunk(CharSequence source, SourceLines lines) {
+        TokenBuffer chunkTokens = new TokenBuffer(source);
+        SymbolTable chunkSymbols = new SymbolTable();
+        try {
+            int lineCount = lexer.fillTokenBuffer(chunkTokens, lines, chunkSymbols, null);
+            return new LexedChunk(chunkTokens, chunkSymbols, lineCount, null);
+        } catch (IllegalArgumentException e) {
+            // kept as is and rethrown by the caller, pool would wrap it into a copy of the exception
+            return new LexedChunk(chunkTokens, chunkSymbols, 0, e);
+        }
+    }
+
+    private int findChunkEnd(CharSequence source, int chunkStart) {
+        if (source.length() - chunkStart <= chunkSize) {
+            return source.length();
+        }
+        int position = chunkStart + chunkSize;
+        while (position < source.length()) {
+            char character = source.charAt(position);
+            if (character == '\n') {
+                return position + 1;
+            }
+            if (character == '\r') {
+                // "\r\n" is a single line break, it can't be split between chunks
+                boolean followedByNewLine = position + 1 < source.length() && source.charAt(position + 1) == '\n';
+                return followedByNewLine ? position + 2 : position + 1;
+            }
+            position++;
+        }
+        return source.length();
+    }
+
+    private static LexedChunk awaitChunk(List<Future<LexedChunk>> chunks, int index) {
+        LexedChunk lexedChunk;
+        try {
+            lexedChunk = chunks.get(index).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Lexing of a chunk failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lexed chunks", e);
+        }
+
+        if (lexedChunk.failure() != null) {
+            // no need to finish lexing of chunks following the failed one
+            chunks.subList(index + 1, chunks.size()).forEach(chunk -> chunk.cancel(true));
+            throw lexedChunk.failure();
+        }
+        return lexedChunk;
+    }
+
+    private record LexedChunk(TokenBuffer tokens, SymbolTable symbols, int lineCount, IllegalArgumentException failure) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Statement;
+import com.kw.parserProject.tokens.Token;
+import com.kw.parserProject.tokens.TokenKind;
+import com.kw.parserProject.tokens.TokenList;
+import com.kw.parserProject.tokens.TokenSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// parses large programs by splitting their tokens into chunks of whole top-level statements, parsed on a ForkJoin pool.
+// chunk boundaries are guessed by a linear pre-scan matching 'while'/'if' against 'end'. every chunk is parsed
+// over the whole token stream, so a chunk parsed exactly up to its end proves that the following chunk starts
+// with a statement, like in sequential parsing. when a guess turns out wrong, the program is parsed sequentially
+public class ParallelParser implements AutoCloseable {
+    private final Parser parser;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    // chunkSize is the approximate number of tokens per chunk, chunks are extended up to the closest top-level statement
+    public ParallelParser(Parser parser, int chunkSize, int parallelism) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size has to be positive, got: " + chunkSize);
+        }
+        this.parser = parser;
+        this.chunkSize = chunkSize;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public Program parse(List<Token> tokens) {
+        // token lists without random access are walked with a shared iterator, so chunks can't read them concurrently
+        return parse(new TokenList(tokens instanceof RandomAccess ? tokens : new ArrayList<>(tokens)));
+    }
+
+    public Program parse(TokenSource tokens) {
+        List<Integer> chunkStarts = findChunkStarts(tokens);
+        if (chunkStarts.size() < 2) {
+            return parser.parse(tokens);
+        }
+
+        List<Future<ParsedChunk>> chunks = new ArrayList<>();
+        for (int i = 0; i < chunkStarts.size(); i++) {
+            int start = chunkStarts.get(i);
+            int end = i + 1 < chunkStarts.size() ? chunkStarts.get(i + 1) : tokens.size();
+            chunks.add(pool.submit(() -> parseChunk(tokens, start, end)));
+        }
+
+        // chunks are collected in order - once all previous chunks ended exactly at their boundaries,
+        // an error of the next one is the same error that sequential parsing would report
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Statement> chunkStatements = awaitChunk(chunks, i);
+            if (chunkStatements == null) {
+                return parser.parse(tokens);
+            }
+            statements.addAll(chunkStatements);
+        }
+        return new Program(statements);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private List<Integer> findChunkStarts(TokenSource tokens) {
+        // statements start with a variable followed by '=' or with a keyword opening a block,
+        // only those outside of any block start top-level statements. the first chunk starts at the first token,
+        // so that stray tokens before the first statement are reported like by sequential parsing
+        List<Integer> chunkStarts = new ArrayList<>();
+        if (tokens.size() > 0) {
+            chunkStarts.add(0);
+        }
+        int depth = 0;
+        int lastChunkStart = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenKind tokenKind = tokens.kind(i);
+            Keyword keyword = tokenKind == TokenKind.KEYWORD ? tokens.keyword(i) : null;
+            boolean opensBlock = keyword == Keyword.WHILE || keyword == Keyword.IF;
+            boolean startsStatement = opensBlock
+                    || tokenKind == TokenKind.VARIABLE && i + 1 < tokens.size() && tokens.kind(i + 1) == TokenKind.ASSIGNMENT;
+
+            if (depth == 0 && startsStatement && i - lastChunkStart >= chunkSize) {
+                chunkStarts.add(i);
+                lastChunkStart = i;
+            }
+            if (opensBlock) {
+                depth++;
+            } else if (keyword == Keyword.END && depth > 0) {
+                depth--;
+            }
+        }
+        return chunkStarts;
+    }
+
+    private ParsedChunk parseChunk(TokenSource tokens, int start, int end) {
+        try {
+            return new ParsedChunk(parser.parseStatements(tokens, start, end), null);
+        } catch (IllegalArgumentException e) {
+            // kept as is and rethrown by the caller, pool would wrap it into a copy of the exception
+            return new ParsedChunk(null, e);
+        }
+    }
+
+    // statements of the chunk, null if they did not end at the start of the next chunk
+    private static List<Statement> awaitChunk(List<Future<ParsedChunk>> chunks, int index) {
+        ParsedChunk parsedChunk;
+        try {
+            parsedChunk = chunks.get(index).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parsing of a chunk failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parsed chunks", e);
+        }
+
+        if (parsedChunk.failure() != null || parsedChunk.statements() == null) {
+            // no need to finish parsing of chunks following the failed one
+            chunks.subList(index + 1, chunks.size()).forEach(chunk -> chunk.cancel(true));
+        }
+        if (parsedChunk.failure() != null) {
+            throw parsedChunk.failure();
+        }
+        return parsedChunk.statements();
+    }
+
+    private record ParsedChunk(List<Statement> statements, IllegalArgumentException failure) {
+    }
+}
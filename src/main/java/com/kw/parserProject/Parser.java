@@ -2,236 +2,364 @@ package com.kw.parserProject;
 
 import com.kw.parserProject.statements.*;
 import com.kw.parserProject.tokens.*;
-import com.kw.parserProject.utility.ReadResults;
 
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
+// parses without recursion - open blocks and pending operators are kept on heap allocated stacks,
+// so nesting depth of statements, brackets and operator chains is limited by memory only.
+// parsing steps move a shared cursor over the tokens, stacks are reused, so apart from AST nodes
+// only a constant amount of memory is allocated per parsed program
 public class Parser {
+    private static final int ALL_STATEMENTS = -1;
 
-    public static final ReadResults<Integer, Expression> EXPRESSION_NOT_FOUND = new ReadResults<>(-1, null);
-    public static final ReadResults<Integer, Statement> STATEMENT_NOT_FOUND = new ReadResults<>(-1, null);
+    private final ExpressionFactory expressions;
 
-    public Program parse(List<Token> tokens) {
-        ReadResults<Integer, List<Statement>> program = readStatementList(new ArrayList<>(tokens), 0);
-        if (program.nextIndex() != tokens.size()) {
-            throw new IllegalArgumentException("Did not manage to consume all tokens");
-        }
-
-        return new Program(program.value());
+    public Parser() {
+        this(new ExpressionFactory());
     }
 
-    private ReadResults<Integer, List<Statement>> readStatementList(List<Token> tokens, int startIndex) {
-        List<Statement> statements = new ArrayList<>();
-
-        int previousSuccessIndex = -1;
-        var res = readStatement(tokens, startIndex);
-        while (res.nextIndex() != -1) {
-            statements.add(res.value());
-            previousSuccessIndex = res.nextIndex();
-            res = readStatement(tokens, res.nextIndex());
-        }
-        if (statements.isEmpty()) {
-            throw new IllegalArgumentException("Expecting at least one statement");
-        }
-        return new ReadResults<>(previousSuccessIndex, statements);
+    // with interning factory, equal expressions of parsed programs are shared
+    public Parser(ExpressionFactory expressions) {
+        this.expressions = expressions;
     }
 
-    private ReadResults<Integer, Statement> readStatement(List<Token> tokens, int startIndex) {
-        Token token = tryReadingToken(tokens, startIndex);
-
-        return switch (token) {
-            case KeywordToken keywordToken -> handleKeywordToken(tokens, startIndex, keywordToken);
-            case VariableToken variableToken -> handleAssignmentStatement(tokens, startIndex, variableToken);
-            case null, default -> STATEMENT_NOT_FOUND;
-        };
+    public Program parse(List<Token> tokens) {
+        return parse(new TokenList(tokens));
     }
 
-    private ReadResults<Integer, Statement> handleKeywordToken(List<Token> tokens, int startIndex, KeywordToken token) {
-        return switch (token.data) {
-            case "if" -> handleIfStatement(tokens, startIndex, token);
-            case "while" -> handleWhileStatement(tokens, startIndex, token);
-            case null, default -> STATEMENT_NOT_FOUND;
-        };
+    public Program parse(TokenSource tokens) {
+        return parse(tokens, null);
     }
 
-    private ReadResults<Integer, Statement> handleWhileStatement(List<Token> tokens, int startIndex, KeywordToken token) {
-        ReadResults<Integer, Expression> whileExpressionReadResults = readExpressionWithBrackets(tokens, startIndex + 1);
-        assertReadSuccess(whileExpressionReadResults, "Expecting expression after 'while' keyword, did not encounter one");
-
-        //statementList
-        ReadResults<Integer, List<Statement>> readStatementListResults = readStatementList(tokens, whileExpressionReadResults.nextIndex());
-        assertReadSuccess(readStatementListResults, "Expecting statements in 'while' loop, did not encounter one");
-
-        int endStatementIndex = readStatementListResults.nextIndex();
-        // end keyword
-        KeywordToken endKeyword = tryReadingToken(tokens, endStatementIndex, KeywordToken.class);
-        assertTokenIsEndKeyword(endKeyword);
-
-        Statement whileStatement = new WhileStatement(whileExpressionReadResults.value(), readStatementListResults.value(), token.lineNumber);
-        return new ReadResults<>(endStatementIndex + 1, whileStatement);
+    // single pass - lines are read and lexed only when parsing gets to them,
+    // tokens of already parsed statements are dropped, so the whole token stream is never kept in memory
+    public Program parse(Lexer lexer, Reader programCode) {
+        return parse(new PullTokenSource(lexer, programCode), null);
     }
 
-    private ReadResults<Integer, Statement> handleIfStatement(List<Token> tokens, int startIndex, KeywordToken token) {
-        ReadResults<Integer, Expression> tryReadingIfCondition = readExpressionWithBrackets(tokens, startIndex + 1);
-        assertReadSuccess(tryReadingIfCondition, "Expecting condition in 'if' statement, did not encounter one");
-
-        ReadResults<Integer, List<Statement>> readStatementListIfClauseResults = readStatementList(tokens, tryReadingIfCondition.nextIndex());
-        assertReadSuccess(readStatementListIfClauseResults, "Expecting statements in 'if' section, did not encounter one");
-
-        int potentialEndKeywordIndex = readStatementListIfClauseResults.nextIndex();
-        KeywordToken nextKeywordToken = tryReadingToken(tokens, potentialEndKeywordIndex, KeywordToken.class);
-
-        List<Statement> ifClauseStatements = readStatementListIfClauseResults.value();
-        List<Statement> elseIfClauseStatements = List.of(); // default else clause is empty if undefined
+    // diagnostics mode - errors are reported to given sink instead of being thrown, parsing resumes at the next
+    // statement or closing keyword. statements containing errors are left out of the returned program
+    public Program parse(TokenSource tokens, DiagnosticSink diagnostics) {
+        Block program = readStatements(new TokenCursor(tokens), new ParseStacks(false), diagnostics, ALL_STATEMENTS);
+        return new Program(program.statements);
+    }
 
-        if ("else".equals(nextKeywordToken.data)) {
-            ReadResults<Integer, List<Statement>> elseSectionReadResults = readStatementList(tokens, potentialEndKeywordIndex + 1);
-            assertReadSuccess(elseSectionReadResults, "Expecting statements in 'else' section, did not encounter one");
+    // parses the whole program, filling spans of its top-level statements
+    Program parseWithSpans(TokenSource tokens, List<StatementSpan> spans) {
+        Block program = readStatements(new TokenCursor(tokens), new ParseStacks(true), null, ALL_STATEMENTS);
+        spans.addAll(program.spans);
+        return new Program(program.statements);
+    }
 
-            elseIfClauseStatements = elseSectionReadResults.value();
-            potentialEndKeywordIndex = elseSectionReadResults.nextIndex();
+    // parses a single statement starting at given token and adds its span, null if no statement starts there
+    Statement parseStatement(TokenSource tokens, int position, List<StatementSpan> spans) {
+        TokenCursor cursor = new TokenCursor(tokens);
+        cursor.moveTo(position);
+        Block root = readStatements(cursor, new ParseStacks(true), null, position + 1);
+        if (root.statements.isEmpty()) {
+            return null;
         }
-        KeywordToken _ = tryReadingToken(tokens, potentialEndKeywordIndex, KeywordToken.class);
-
-        Statement statement = new IfStatement(tryReadingIfCondition.value(), ifClauseStatements, elseIfClauseStatements, token.lineNumber);
-        return new ReadResults<>(potentialEndKeywordIndex + 1, statement);
+        spans.add(root.spans.getFirst());
+        return root.statements.getFirst();
     }
 
-    private ReadResults<Integer, Statement> handleAssignmentStatement(List<Token> tokens, int startIndex, VariableToken variableToken) {
-        AssignmentToken _ = tryReadingToken(tokens, startIndex + 1, AssignmentToken.class);
+    // parses top-level statements from start to end, null if the last of them does not end exactly at end
+    List<Statement> parseStatements(TokenSource tokens, int start, int end) {
+        TokenCursor cursor = new TokenCursor(tokens);
+        cursor.moveTo(start);
+        Block root = readStatements(cursor, new ParseStacks(false), null, end);
+        return cursor.position() == end ? root.statements : null;
+    }
 
-        ReadResults<Integer, Expression> assignmentReadResults = readExpressionWithBrackets(tokens, startIndex + 2);
-        assertReadSuccess(assignmentReadResults, "Expecting expression to assign, did not encounter one");
+    // top-level statements are read until one of them ends at stopPosition or past it
+    private Block readStatements(TokenCursor cursor, ParseStacks stacks, DiagnosticSink diagnostics, int stopPosition) {
+        Block program = stacks.pushBlock(null, -1, cursor.position());
+
+        while (stopPosition == ALL_STATEMENTS || stacks.currentBlock() != program || cursor.position() < stopPosition) {
+            cursor.releaseConsumedTokens();
+            Block block = stacks.currentBlock();
+            TokenKind tokenKind = cursor.peek();
+            Keyword keyword = cursor.peekKeyword();
+
+            if (tokenKind == TokenKind.VARIABLE) {
+                int start = cursor.position();
+                try {
+                    block.statements.add(readAssignmentStatement(cursor, stacks));
+                    block.addSpan(new StatementSpan(cursor.position() - start, cursor.position() - start, List.of()));
+                } catch (SyntaxException e) {
+                    recover(cursor, diagnostics, e);
+                }
+            } else if (keyword == Keyword.WHILE || keyword == Keyword.IF) {
+                String missingConditionMessage = keyword == Keyword.WHILE
+                        ? "Expecting expression after 'while' keyword, did not encounter one"
+                        : "Expecting condition in 'if' statement, did not encounter one";
+                Block nestedBlock = stacks.pushBlock(keyword, cursor.lineNumber(), cursor.position());
+                cursor.advance();
+                try {
+                    nestedBlock.condition = readExpression(cursor, stacks, missingConditionMessage);
+                    nestedBlock.headerLength = cursor.position() - nestedBlock.start;
+                } catch (SyntaxException e) {
+                    // body is still read up to its closing keyword, but the statement is dropped
+                    recover(cursor, diagnostics, e);
+                    nestedBlock.malformed = true;
+                }
+            } else if (diagnostics != null && tokenKind != null && tokenKind != TokenKind.KEYWORD) {
+                // stray token in place of a statement or a closing keyword
+                report(cursor, diagnostics, block == program ? unconsumedTokens(cursor) : cursor.unexpected(0, TokenKind.KEYWORD));
+                cursor.advance();
+                skipToSynchronizingToken(cursor);
+            } else {
+                // no more statements in current statement list, in diagnostics mode whole program is checked once all tokens are read
+                if (stopPosition != ALL_STATEMENTS && block == program) {
+                    break;
+                }
+                if (block.statements.isEmpty() && (diagnostics == null || block != program || cursor.isConsumed())) {
+                    reportOrThrow(cursor, diagnostics, new SyntaxException("Expecting at least one statement", cursor.position(), null, tokenKind));
+                }
+                if (block == program) {
+                    if (cursor.isConsumed()) {
+                        break;
+                    }
+                    // closing keyword without any open block
+                    reportOrThrow(cursor, diagnostics, unconsumedTokens(cursor));
+                    cursor.advance();
+                    skipToSynchronizingToken(cursor);
+                    continue;
+                }
+                if (tokenKind != TokenKind.KEYWORD) {
+                    // tokens ended before all blocks were closed, in diagnostics mode they are closed as they are
+                    reportOrThrow(cursor, diagnostics, cursor.unexpected(0, TokenKind.KEYWORD));
+                    while (stacks.currentBlock() != program) {
+                        closeCurrentBlock(stacks, cursor);
+                    }
+                    break;
+                }
+                if (openElseSection(keyword, block)) {
+                    cursor.advance();
+                    continue;
+                }
+                if (block.keyword == Keyword.WHILE && keyword != Keyword.END) {
+                    // 'while' has to be closed with 'end', 'if' accepts any keyword
+                    reportOrThrow(cursor, diagnostics, new SyntaxException("Expected a token with data: " + "end" + ", got " + cursor.text(),
+                            cursor.position(), TokenKind.KEYWORD, TokenKind.KEYWORD));
+                    cursor.advance();
+                    continue;
+                }
+
+                closeCurrentBlock(stacks, cursor);
+                cursor.advance();
+            }
+        }
 
-        Statement statement = new Assignment(variableToken.data, assignmentReadResults.value(), variableToken.lineNumber);
-        return new ReadResults<>(assignmentReadResults.nextIndex(), statement);
+        return program;
     }
 
-    private ReadResults<Integer, Expression> readExpressionWithBrackets(List<Token> tokens, int startIndex) {
-        Token token = tryReadingToken(tokens, startIndex);
-        return switch (token) {
-            case OpeningBracketToken _ -> handleOpeningBracket(tokens, startIndex);
-            case VariableToken variableToken -> chainIfPossible(tokens, startIndex, wrapInExpression(variableToken));
-            case ConstantToken constantToken -> chainIfPossible(tokens, startIndex, wrapInExpression(constantToken));
-            case OperatorToken operatorToken -> handleOperatorToken(tokens, startIndex, operatorToken);
-            case null, default -> EXPRESSION_NOT_FOUND;
-        };
+    private boolean openElseSection(Keyword keyword, Block block) {
+        if (block.keyword != Keyword.IF || block.ifClauseStatements != null || keyword != Keyword.ELSE) {
+            return false;
+        }
+        block.ifClauseStatements = block.statements;
+        block.statements = new ArrayList<>();
+        return true;
     }
 
-    private ReadResults<Integer, Expression> handleOperatorToken(List<Token> tokens, int startIndex, OperatorToken token) {
-        if (!Operator.MINUS.equals(token.getOperator())) {
-            return EXPRESSION_NOT_FOUND;
+    private void closeCurrentBlock(ParseStacks stacks, TokenCursor cursor) {
+        Block block = stacks.currentBlock();
+        stacks.popBlock();
+        if (block.malformed) {
+            return;
         }
 
-        ConstantToken constantToNegate = tryReadingToken(tokens, startIndex + 1, ConstantToken.class);
-        ValueExpression valueExpression = new ValueExpression(Operator.MINUS.character + constantToNegate.data);
-        return chainIfPossible(tokens, startIndex + 1, valueExpression);
+        Statement statement;
+        if (block.keyword == Keyword.WHILE) {
+            statement = new WhileStatement(block.condition, block.statements, block.lineNumber);
+        } else if (block.ifClauseStatements == null) {
+            // default else clause is empty if undefined
+            statement = new IfStatement(block.condition, block.statements, List.of(), block.lineNumber);
+        } else {
+            statement = new IfStatement(block.condition, block.ifClauseStatements, block.statements, block.lineNumber);
+        }
+        Block parent = stacks.currentBlock();
+        parent.statements.add(statement);
+        // closing keyword is a part of the statement
+        parent.addSpan(new StatementSpan(cursor.position() + 1 - block.start, block.headerLength, block.spans));
     }
 
-    private ReadResults<Integer, Expression> handleOpeningBracket(List<Token> tokens, int startIndex) {
-        ReadResults<Integer, Expression> expressionReadResults = readExpressionWithBrackets(tokens, startIndex + 1);
-        assertReadSuccess(expressionReadResults, "Expecting an expression in brackets, did not encounter one");
-
-        ClosingBracketToken _ = tryReadingToken(tokens, expressionReadResults.nextIndex(), ClosingBracketToken.class);
+    private static SyntaxException unconsumedTokens(TokenCursor cursor) {
+        return new SyntaxException("Did not manage to consume all tokens", cursor.position(), null, cursor.peek());
+    }
 
-        Expression expression = new BracketExpression(expressionReadResults.value());
-        return chainIfPossible(tokens, expressionReadResults.nextIndex(), expression);
+    private static void recover(TokenCursor cursor, DiagnosticSink diagnostics, SyntaxException exception) {
+        reportOrThrow(cursor, diagnostics, exception);
+        cursor.moveTo(exception.getPosition());
+        skipToSynchronizingToken(cursor);
     }
 
-    private ReadResults<Integer, Expression> chainIfPossible(List<Token> tokens, int startIndex, Expression expression) {
-        int potentialLastTokenIndex = startIndex + 1;
-        Token nextToken = tryReadingToken(tokens, potentialLastTokenIndex);
-        if (nextToken instanceof OperatorToken operatorToken) {
-            return chainExpressions(tokens, expression, potentialLastTokenIndex, operatorToken);
+    private static void skipToSynchronizingToken(TokenCursor cursor) {
+        // next statement starts with a variable or a keyword, blocks are closed by keywords too
+        TokenKind tokenKind;
+        while ((tokenKind = cursor.peek()) != null && tokenKind != TokenKind.VARIABLE && tokenKind != TokenKind.KEYWORD) {
+            cursor.advance();
         }
-
-        return new ReadResults<>(potentialLastTokenIndex, expression);
     }
 
-    private ReadResults<Integer, Expression> chainExpressions(List<Token> tokens, Expression expression, int potentialLastTokenIndex, OperatorToken operatorToken) {
-        ReadResults<Integer, Expression> endIndex = readExpressionWithBrackets(tokens, potentialLastTokenIndex + 1);
-        assertReadSuccess(endIndex, "Expecting an expression, did not encounter valid one");
-
-        // we're collecting chained assignments from right to left, due to recursion call.
-        // it is not a problem with basic unused variable usage analysis as order of operation is not important for it.
-        // however let's try fixing operator order
-        Operator operator = operatorToken.getOperator();
-        Expression rightSideExpression = endIndex.value();
-        if (rightSideExpression instanceof OperatorExpression operatorExpression) {
-            Expression rotatedExpression = rotateExpressions(expression, operator, operatorExpression);
-            return new ReadResults<>(endIndex.nextIndex(), rotatedExpression);
+    private static void reportOrThrow(TokenCursor cursor, DiagnosticSink diagnostics, SyntaxException exception) {
+        if (diagnostics == null) {
+            throw exception;
         }
+        report(cursor, diagnostics, exception);
+    }
 
-        Expression chainedExpression = new OperatorExpression(expression, operator, rightSideExpression);
-        return new ReadResults<>(endIndex.nextIndex(), chainedExpression);
+    private static void report(TokenCursor cursor, DiagnosticSink diagnostics, SyntaxException exception) {
+        diagnostics.report(Diagnostic.of(Diagnostic.Stage.PARSING, cursor.lineNumberAt(exception.getPosition()), exception));
     }
 
-    private static Expression rotateExpressions(Expression leftSideExpression, Operator operator, OperatorExpression rightSideExpression) {
-        // push operator and left input argument as deep into the operator tree as possible and connect it with rightSideExpression's left predecessor
-        // this will transform "left * (right + right2)" into "(left * right) + right2"
-        // and should respect operator precedence and multiple chain levels (hopefully)
+    private Statement readAssignmentStatement(TokenCursor cursor, ParseStacks stacks) {
+        cursor.expect(1, TokenKind.ASSIGNMENT);
 
-        Expression leftPointer = rightSideExpression;
-        OperatorExpression parentPointer = null;
+        String writeVariable = cursor.text();
+        int writeSymbolId = cursor.symbolId();
+        int lineNumber = cursor.lineNumber();
+        cursor.advance(2);
+        Expression expression = readExpression(cursor, stacks, "Expecting expression to assign, did not encounter one");
 
-        while (leftPointer instanceof OperatorExpression ex
-                && shouldRotateDueToOperatorPrecedence(operator, ex.operator())) {
-            parentPointer = ex;
-            leftPointer = ex.leftExpression();
-        }
-
-        // create new leaf node - attach left part of expression to the operator as a right node
-        OperatorExpression newExpression = new OperatorExpression(leftSideExpression, operator, leftPointer);
+        return new Assignment(writeVariable, writeSymbolId, expression, lineNumber);
+    }
 
-        if (parentPointer != null) {
-            parentPointer.setLeftExpression(newExpression);
-            return rightSideExpression;
+    private Expression readExpression(TokenCursor cursor, ParseStacks stacks, String missingExpressionMessage) {
+        // shunting-yard - operators wait on the stack until an operator of the same or lower precedence comes,
+        // which makes them left-associative. null on operator stack marks an opened bracket
+        List<Expression> operands = stacks.operands;
+        List<Operator> operators = stacks.operators;
+        operands.clear();
+        operators.clear();
+        int openBrackets = 0;
+        String missingOperandMessage = missingExpressionMessage;
+
+        while (true) {
+            // operand expected
+            if (cursor.peek() == TokenKind.OPENING_BRACKET) {
+                operators.add(null);
+                openBrackets++;
+                missingOperandMessage = "Expecting an expression in brackets, did not encounter one";
+                cursor.advance();
+                continue;
+            }
+            operands.add(readOperand(cursor, missingOperandMessage));
+
+            // operator, closing bracket or end of expression expected
+            while (true) {
+                Operator operator = cursor.peekOperator();
+                if (operator != null) {
+                    reduceOperators(operands, operators, operator.precedence);
+                    operators.add(operator);
+                    missingOperandMessage = "Expecting an expression, did not encounter valid one";
+                    cursor.advance();
+                    break;
+                }
+
+                reduceOperators(operands, operators, Operator.LOWEST_PRECEDENCE);
+                if (openBrackets == 0) {
+                    return operands.removeLast();
+                }
+
+                cursor.expect(TokenKind.CLOSING_BRACKET);
+                operators.removeLast();
+                openBrackets--;
+                operands.add(expressions.bracket(operands.removeLast()));
+                cursor.advance();
+            }
         }
-
-        return newExpression;
     }
 
-    private static boolean shouldRotateDueToOperatorPrecedence(Operator left, Operator right) {
-        return left.precedence >= right.precedence;
+    private Expression readOperand(TokenCursor cursor, String missingOperandMessage) {
+        TokenKind tokenKind = cursor.peek();
+        Expression operand;
+        if (tokenKind == TokenKind.VARIABLE) {
+            operand = expressions.variable(cursor.text(), cursor.symbolId());
+        } else if (tokenKind == TokenKind.CONSTANT) {
+            operand = expressions.value(cursor.numericValue(0), cursor.text());
+        } else if (cursor.peekOperator() == Operator.MINUS) {
+            // minus is accepted only as a sign of a constant
+            cursor.expect(1, TokenKind.CONSTANT);
+            operand = expressions.value(-cursor.numericValue(1), Operator.MINUS.character + cursor.text(1));
+            cursor.advance();
+        } else {
+            throw new SyntaxException(missingOperandMessage, cursor.position(), null, tokenKind);
+        }
+        cursor.advance();
+        return operand;
     }
 
-    private Expression wrapInExpression(VariableToken variableToken) {
-        return new VariableExpression(variableToken.data);
+    private void reduceOperators(List<Expression> operands, List<Operator> operators, int minPrecedence) {
+        // combines pending operators with at least given precedence, up to the innermost opened bracket
+        while (!operators.isEmpty() && operators.getLast() != null && operators.getLast().precedence >= minPrecedence) {
+            Expression rightExpression = operands.removeLast();
+            Expression leftExpression = operands.removeLast();
+            operands.add(expressions.operator(leftExpression, operators.removeLast(), rightExpression));
+        }
     }
 
-    private Expression wrapInExpression(ConstantToken constantToken) {
-        return new ValueExpression(constantToken.data);
-    }
+    // stacks of one parse() call - blocks are reused once closed, expression stacks are reused by all expressions
+    private static final class ParseStacks {
+        private final List<Expression> operands = new ArrayList<>();
+        private final List<Operator> operators = new ArrayList<>();
+        private final List<Block> blocks = new ArrayList<>();
+        private final boolean recordSpans;
+        private int openBlocks = 0;
 
-    private Token tryReadingToken(List<Token> tokens, int index) {
-        if (index >= tokens.size()) {
-            return null;
+        private ParseStacks(boolean recordSpans) {
+            this.recordSpans = recordSpans;
         }
-        return tokens.get(index);
-    }
 
-    private <T extends Token> T tryReadingToken(List<Token> tokens, int index, Class<T> tokenClass) {
-        if (index >= tokens.size()) {
-            throw new IllegalArgumentException("All tokens already consumed");
+        private Block pushBlock(Keyword keyword, int lineNumber, int start) {
+            if (openBlocks == blocks.size()) {
+                blocks.add(new Block());
+            }
+            Block block = blocks.get(openBlocks++);
+            block.open(keyword, lineNumber, start, recordSpans);
+            return block;
         }
-        Token token = tokens.get(index);
-        if (!tokenClass.isInstance(token)) {
-            throw new IllegalArgumentException("Expected " + tokenClass.getName() + ", got " + (token == null ? "null" : token.getClass().toString()));
+
+        private void popBlock() {
+            openBlocks--;
         }
-        return tokenClass.cast(token);
-    }
 
-    private static void assertReadSuccess(ReadResults<Integer, ?> readingResult, String errorMessage) {
-        if (readingResult.nextIndex() == -1) {
-            throw new IllegalArgumentException(errorMessage);
+        private Block currentBlock() {
+            return blocks.get(openBlocks - 1);
         }
     }
 
-    private static void assertTokenIsEndKeyword(KeywordToken tokenToCheck) {
-        if (!Objects.equals(tokenToCheck.data, "end")) {
-            throw new IllegalArgumentException("Expected a token with data: " + "end" + ", got " + tokenToCheck.data);
+    // statement list being read - the whole program, or a body of 'while'/'if' not closed yet
+    private static final class Block {
+        private Keyword keyword;
+        private int lineNumber;
+        private Expression condition;
+        private List<Statement> statements;
+        private List<Statement> ifClauseStatements; // set once 'else' section of 'if' is reached
+        private boolean malformed; // condition could not be parsed, so the statement is left out
+        private int start;
+        private int headerLength;
+        private List<StatementSpan> spans; // spans of nested statements, only when they are recorded
+
+        private void open(Keyword keyword, int lineNumber, int start, boolean recordSpans) {
+            this.keyword = keyword;
+            this.lineNumber = lineNumber;
+            this.condition = null;
+            this.statements = new ArrayList<>();
+            this.ifClauseStatements = null;
+            this.malformed = false;
+            this.start = start;
+            this.headerLength = 0;
+            this.spans = recordSpans ? new ArrayList<>() : null;
+        }
+
+        private void addSpan(StatementSpan span) {
+            if (spans != null) {
+                spans.add(span);
+            }
         }
     }
 }
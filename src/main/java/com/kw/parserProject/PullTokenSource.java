@@ -0,0 +1,161 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.TokenKind;
+import com.kw.parserProject.tokens.TokenSink;
+import com.kw.parserProject.tokens.TokenSource;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Iterator;
+
+// token source lexing lines of a reader only once a token of them is requested. it keeps a window of tokens
+// from the lowest not released index to the last lexed one, released tokens are dropped when the window is compacted.
+// lexing errors are thrown once parsing gets to the offending line
+final class PullTokenSource implements TokenSource, TokenSink {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final Operator[] OPERATORS = Operator.values();
+    private static final Keyword[] KEYWORDS = Keyword.values();
+
+    private final Lexer lexer;
+    private final Iterator<String> lines;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] lineNumbers = new int[INITIAL_CAPACITY];
+    private int[] ordinals = new int[INITIAL_CAPACITY];
+    private String[] constants = new String[INITIAL_CAPACITY]; // spelling of constants, other tokens are described by ordinals
+    private int firstIndex = 0; // stream index of the first token in the window
+    private int released = 0; // stream index of the first token that was not released
+    private int count = 0; // number of tokens in the window
+    private CharSequence currentLine;
+    private int lineNumber = 0;
+
+    PullTokenSource(Lexer lexer, Reader programCode) {
+        this.lexer = lexer;
+        BufferedReader bufferedReader = programCode instanceof BufferedReader br ? br : new BufferedReader(programCode);
+        this.lines = bufferedReader.lines().iterator();
+    }
+
+    // reads the remaining input, so it is only needed when tokens ran out or for error reporting
+    @Override
+    public int size() {
+        while (lexNextLine()) {
+            // lexing until the end of input
+        }
+        return firstIndex + count;
+    }
+
+    @Override
+    public boolean hasToken(int index) {
+        while (index >= firstIndex + count) {
+            if (!lexNextLine()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void release(int index) {
+        released = Math.max(released, index);
+    }
+
+    @Override
+    public TokenKind kind(int index) {
+        return KINDS[kinds[windowIndex(index)]];
+    }
+
+    @Override
+    public int lineNumber(int index) {
+        return lineNumbers[windowIndex(index)];
+    }
+
+    @Override
+    public Operator operator(int index) {
+        int windowIndex = windowIndex(index);
+        return kinds[windowIndex] == TokenKind.OPERATOR.ordinal() ? OPERATORS[ordinals[windowIndex]] : null;
+    }
+
+    @Override
+    public Keyword keyword(int index) {
+        int windowIndex = windowIndex(index);
+        return kinds[windowIndex] == TokenKind.KEYWORD.ordinal() ? KEYWORDS[ordinals[windowIndex]] : null;
+    }
+
+    @Override
+    public float numericValue(int index) {
+        return Float.intBitsToFloat(ordinals[windowIndex(index)]);
+    }
+
+    @Override
+    public int symbolId(int index) {
+        return ordinals[windowIndex(index)];
+    }
+
+    @Override
+    public String text(int index) {
+        // same data as token objects and token buffer
+        int windowIndex = windowIndex(index);
+        return switch (KINDS[kinds[windowIndex]]) {
+            case OPERATOR -> OPERATORS[ordinals[windowIndex]].name();
+            case KEYWORD -> KEYWORDS[ordinals[windowIndex]].print();
+            case VARIABLE -> lexer.symbolTable().name(ordinals[windowIndex]);
+            case CONSTANT -> constants[windowIndex];
+            case ASSIGNMENT -> "=";
+            case OPENING_BRACKET -> "(";
+            case CLOSING_BRACKET -> ")";
+        };
+    }
+
+    @Override
+    public void accept(TokenKind kind, int start, int end, int ordinal) {
+        if (count == kinds.length) {
+            makeRoom();
+        }
+        kinds[count] = (byte) kind.ordinal();
+        lineNumbers[count] = lineNumber;
+        ordinals[count] = ordinal;
+        constants[count] = kind == TokenKind.CONSTANT ? currentLine.subSequence(start, end).toString() : null;
+        count++;
+    }
+
+    private boolean lexNextLine() {
+        if (!lines.hasNext()) {
+            return false;
+        }
+        currentLine = lines.next();
+        lineNumber++;
+        lexer.parseLine(currentLine, this);
+        return true;
+    }
+
+    private int windowIndex(int index) {
+        if (index < firstIndex) {
+            throw new IllegalArgumentException("Token was already released: " + index);
+        }
+        if (!hasToken(index)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + (firstIndex + count));
+        }
+        return index - firstIndex;
+    }
+
+    private void makeRoom() {
+        // released tokens are dropped first, the window grows only when most of it is still needed
+        int droppedCount = released - firstIndex;
+        if (droppedCount > kinds.length / 2) {
+            count -= droppedCount;
+            System.arraycopy(kinds, droppedCount, kinds, 0, count);
+            System.arraycopy(lineNumbers, droppedCount, lineNumbers, 0, count);
+            System.arraycopy(ordinals, droppedCount, ordinals, 0, count);
+            System.arraycopy(constants, droppedCount, constants, 0, count);
+            Arrays.fill(constants, count, constants.length, null);
+            firstIndex = released;
+            return;
+        }
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        ordinals = Arrays.copyOf(ordinals, capacity);
+        constants = Arrays.copyOf(constants, capacity);
+    }
+}
@@ -0,0 +1,384 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Assignment;
+import com.kw.parserProject.statements.HasLineNumber;
+import com.kw.parserProject.statements.Statement;
+import com.kw.parserProject.utility.IntList;
+import com.kw.parserProject.utility.SymbolSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+// static single assignment form of a control flow graph. every assignment is a definition, phi definitions
+// merge values of a variable where control flow joins - after 'if' and at conditions of loops. phis are placed
+// on dominance frontiers of assignments, only for variables read in a block other than the one assigning them.
+// every read of a variable in an action and every phi operand is a use, linked to its single reaching definition.
+// definitions of assignments come first in order of actions, uses of actions come first in order of actions and
+// symbol ids, so the chains are stored in index arrays only
+public final class SsaForm {
+    public static final int UNDEFINED = -1; // definition of variables read before any assignment
+
+    private final ControlFlowGraph graph;
+    private final int[] actionDefinitions; // definition of an assignment action, -1 for conditions
+    private final int assignmentCount; // phis are numbered after all assignments
+    private final int[] definitionActions; // -1 for phis
+    private final int[] definitionBlocks;
+    private final int[] definitionSymbols;
+    private final int[] phiOperandStarts; // operand uses of a phi follow the order of block's predecessors
+    private final int[] actionUseStarts; // uses of action a are from actionUseStarts[a] to actionUseStarts[a + 1]
+    private final int[] useActions; // -1 for phi operands
+    private final int[] usePhis; // -1 for reads in actions
+    private final int[] useSymbols;
+    private final int[] useDefinitions;
+    private final int[] definitionUseStarts; // uses of definition d are from definitionUseStarts[d]
+    private final int[] definitionUses; // to definitionUseStarts[d + 1]
+
+    private SsaForm(ControlFlowGraph graph) {
+        this.graph = graph;
+        int actionCount = graph.actionCount();
+        int blockCount = graph.blockCount();
+        int symbolCount = graph.symbolCount();
+
+        // assignments and reads of actions, with variables read by a block before assigning them
+        this.actionDefinitions = new int[actionCount];
+        this.actionUseStarts = new int[actionCount + 1];
+        IntList definitionActions = new IntList();
+        IntList definitionBlocks = new IntList();
+        IntList definitionSymbols = new IntList();
+        IntList useActions = new IntList();
+        IntList usePhis = new IntList();
+        IntList useSymbols = new IntList();
+        boolean[] readAcrossBlocks = new boolean[symbolCount];
+        int[] assignedInBlock = new int[symbolCount]; // block number plus one, avoids clearing between blocks
+        List<IntList> assigningBlocks = new ArrayList<>(symbolCount);
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            assigningBlocks.add(null);
+        }
+        for (int block = 0; block < blockCount; block++) {
+            for (int action = graph.actionStart(block); action < graph.actionEnd(block); action++) {
+                actionUseStarts[action] = useActions.size();
+                SymbolSet readSymbols = graph.expression(action).readSymbolSet();
+                for (int symbolId = readSymbols.nextSymbol(0); symbolId != -1; symbolId = readSymbols.nextSymbol(symbolId + 1)) {
+                    useActions.add(action);
+                    usePhis.add(-1);
+                    useSymbols.add(symbolId);
+                    readAcrossBlocks[symbolId] |= assignedInBlock[symbolId] != block + 1;
+                }
+                actionDefinitions[action] = -1;
+                if (graph.statement(action) instanceof Assignment assignment) {
+                    int symbolId = assignment.writeSymbolId();
+                    actionDefinitions[action] = definitionActions.size();
+                    definitionActions.add(action);
+                    definitionBlocks.add(block);
+                    definitionSymbols.add(symbolId);
+                    if (assignedInBlock[symbolId] != block + 1) {
+                        assignedInBlock[symbolId] = block + 1;
+                        if (assigningBlocks.get(symbolId) == null) {
+                            assigningBlocks.set(symbolId, new IntList(2));
+                        }
+                        assigningBlocks.get(symbolId).add(block);
+                    }
+                }
+            }
+        }
+        actionUseStarts[actionCount] = useActions.size();
+        this.assignmentCount = definitionActions.size();
+
+        // phis on iterated dominance frontiers, with operands added as uses of unknown definitions for now
+        int[] frontierStarts = new int[blockCount + 1];
+        int[] frontiers = dominanceFrontiers(graph, frontierStarts);
+        IntList phiBlocks = new IntList();
+        IntList phiDefinitions = new IntList();
+        int[] phiPlaced = new int[blockCount]; // symbol id plus one
+        int[] queuedFor = new int[blockCount]; // symbol id plus one
+        IntList worklist = new IntList();
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            IntList blocks = assigningBlocks.get(symbolId);
+            if (blocks == null || !readAcrossBlocks[symbolId]) {
+                continue;
+            }
+            for (int i = 0; i < blocks.size(); i++) {
+                worklist.add(blocks.get(i));
+                queuedFor[blocks.get(i)] = symbolId + 1;
+            }
+            while (!worklist.isEmpty()) {
+                int block = worklist.pop();
+                for (int f = frontierStarts[block]; f < frontierStarts[block + 1]; f++) {
+                    int frontier = frontiers[f];
+                    if (phiPlaced[frontier] == symbolId + 1) {
+                        continue;
+                    }
+                    phiPlaced[frontier] = symbolId + 1;
+                    phiBlocks.add(frontier);
+                    phiDefinitions.add(definitionActions.size());
+                    definitionActions.add(-1);
+                    definitionBlocks.add(frontier);
+                    definitionSymbols.add(symbolId);
+                    if (queuedFor[frontier] != symbolId + 1) {
+                        queuedFor[frontier] = symbolId + 1;
+                        worklist.add(frontier);
+                    }
+                }
+            }
+        }
+        int definitionCount = definitionActions.size();
+        this.phiOperandStarts = new int[definitionCount + 1];
+        for (int definition = 0; definition < definitionCount; definition++) {
+            phiOperandStarts[definition] = useActions.size();
+            if (definitionActions.get(definition) == -1) {
+                for (int i = 0; i < graph.predecessorCount(definitionBlocks.get(definition)); i++) {
+                    useActions.add(-1);
+                    usePhis.add(definition);
+                    useSymbols.add(definitionSymbols.get(definition));
+                }
+            }
+        }
+        phiOperandStarts[definitionCount] = useActions.size();
+
+        this.definitionActions = definitionActions.toArray();
+        this.definitionBlocks = definitionBlocks.toArray();
+        this.definitionSymbols = definitionSymbols.toArray();
+        this.useActions = useActions.toArray();
+        this.usePhis = usePhis.toArray();
+        this.useSymbols = useSymbols.toArray();
+        this.useDefinitions = new int[this.useActions.length];
+        int[] phiStarts = new int[blockCount + 1];
+        int[] phis = ControlFlowGraph.groupByKey(phiBlocks.toArray(), phiDefinitions.toArray(), phiStarts);
+        rename(phiStarts, phis);
+
+        this.definitionUseStarts = new int[definitionCount + 1];
+        this.definitionUses = groupUses();
+    }
+
+    public static SsaForm of(Program program) {
+        return of(ControlFlowGraph.of(program));
+    }
+
+    public static SsaForm of(ControlFlowGraph graph) {
+        return new SsaForm(graph);
+    }
+
+    public ControlFlowGraph graph() {
+        return graph;
+    }
+
+    public int definitionCount() {
+        return definitionActions.length;
+    }
+
+    public boolean isPhi(int definition) {
+        return definitionActions[checkDefinition(definition)] == -1;
+    }
+
+    // action of the assignment, -1 for phis
+    public int definitionAction(int definition) {
+        return definitionActions[checkDefinition(definition)];
+    }
+
+    // null for phis
+    public Assignment assignment(int definition) {
+        int action = definitionAction(definition);
+        return action == -1 ? null : (Assignment) graph.statement(action);
+    }
+
+    public int definitionBlock(int definition) {
+        return definitionBlocks[checkDefinition(definition)];
+    }
+
+    public int definitionSymbol(int definition) {
+        return definitionSymbols[checkDefinition(definition)];
+    }
+
+    // definition made by an assignment action, -1 for conditions
+    public int actionDefinition(int action) {
+        return actionDefinitions[action];
+    }
+
+    public int useCount() {
+        return useActions.length;
+    }
+
+    // uses of variables read by the action, in order of their symbol ids
+    public int actionUseStart(int action) {
+        return actionUseStarts[action];
+    }
+
+    public int actionUseEnd(int action) {
+        return actionUseStarts[action + 1];
+    }
+
+    // use of the value coming from given predecessor of phi's block
+    public int phiOperand(int phi, int predecessorIndex) {
+        int operandCount = phiOperandStarts[checkDefinition(phi) + 1] - phiOperandStarts[phi];
+        return phiOperandStarts[phi] + Objects.checkIndex(predecessorIndex, operandCount);
+    }
+
+    // action reading the variable, -1 for phi operands
+    public int useAction(int use) {
+        return useActions[checkUse(use)];
+    }
+
+    // phi the operand belongs to, -1 for reads in actions
+    public int usePhi(int use) {
+        return usePhis[checkUse(use)];
+    }
+
+    public int useSymbol(int use) {
+        return useSymbols[checkUse(use)];
+    }
+
+    // the only definition reaching the use, UNDEFINED if the variable is not assigned on the way to it
+    public int useDefinition(int use) {
+        return useDefinitions[checkUse(use)];
+    }
+
+    public int definitionUseCount(int definition) {
+        return definitionUseStarts[checkDefinition(definition) + 1] - definitionUseStarts[definition];
+    }
+
+    // uses of a definition are ordered by their indices
+    public int definitionUse(int definition, int index) {
+        return definitionUses[definitionUseStarts[checkDefinition(definition)] + Objects.checkIndex(index, definitionUseCount(definition))];
+    }
+
+    // assignments whose value is never read, not even through phis, ordered by their line numbers.
+    // phis are live when an action reads them directly or through other live phis
+    public List<Statement> unusedAssignments() {
+        boolean[] livePhis = new boolean[definitionCount()];
+        IntList worklist = new IntList();
+        for (int use = 0; use < actionUseStarts[actionUseStarts.length - 1]; use++) {
+            markLivePhi(useDefinitions[use], livePhis, worklist);
+        }
+        while (!worklist.isEmpty()) {
+            int phi = worklist.pop();
+            for (int use = phiOperandStarts[phi]; use < phiOperandStarts[phi + 1]; use++) {
+                markLivePhi(useDefinitions[use], livePhis, worklist);
+            }
+        }
+
+        List<Statement> unusedAssignments = new ArrayList<>();
+        for (int definition = 0; definition < assignmentCount; definition++) {
+            boolean used = false;
+            for (int u = definitionUseStarts[definition]; u < definitionUseStarts[definition + 1] && !used; u++) {
+                int use = definitionUses[u];
+                used = usePhis[use] == -1 || livePhis[usePhis[use]];
+            }
+            if (!used) {
+                unusedAssignments.add(graph.statement(definitionActions[definition]));
+            }
+        }
+        unusedAssignments.sort(Comparator.comparing(HasLineNumber::getLineNumber));
+        return unusedAssignments;
+    }
+
+    private void markLivePhi(int definition, boolean[] livePhis, IntList worklist) {
+        if (definition != UNDEFINED && definitionActions[definition] == -1 && !livePhis[definition]) {
+            livePhis[definition] = true;
+            worklist.add(definition);
+        }
+    }
+
+    private int checkDefinition(int definition) {
+        return Objects.checkIndex(definition, definitionActions.length);
+    }
+
+    private int checkUse(int use) {
+        return Objects.checkIndex(use, useActions.length);
+    }
+
+    // walks dominator tree without recursion, keeping the current definition of every variable.
+    // definitions replaced in a block are logged and restored once all blocks it dominates are done
+    private void rename(int[] phiStarts, int[] phis) {
+        int[] currentDefinitions = new int[graph.symbolCount()];
+        Arrays.fill(currentDefinitions, UNDEFINED);
+        IntList replacedSymbols = new IntList();
+        IntList replacedDefinitions = new IntList();
+        int[] logSizes = new int[graph.blockCount()];
+        int[] nextChildren = new int[graph.blockCount()];
+        IntList path = new IntList();
+        path.add(graph.entry());
+        enterBlock(graph.entry(), phiStarts, phis, currentDefinitions, replacedSymbols, replacedDefinitions, logSizes);
+        while (!path.isEmpty()) {
+            int block = path.get(path.size() - 1);
+            if (nextChildren[block] < graph.dominatedCount(block)) {
+                int child = graph.dominated(block, nextChildren[block]++);
+                path.add(child);
+                enterBlock(child, phiStarts, phis, currentDefinitions, replacedSymbols, replacedDefinitions, logSizes);
+            } else {
+                path.pop();
+                while (replacedSymbols.size() > logSizes[block]) {
+                    currentDefinitions[replacedSymbols.pop()] = replacedDefinitions.pop();
+                }
+            }
+        }
+    }
+
+    private void enterBlock(int block, int[] phiStarts, int[] phis, int[] currentDefinitions,
+                            IntList replacedSymbols, IntList replacedDefinitions, int[] logSizes) {
+        logSizes[block] = replacedSymbols.size();
+        for (int p = phiStarts[block]; p < phiStarts[block + 1]; p++) {
+            define(phis[p], currentDefinitions, replacedSymbols, replacedDefinitions);
+        }
+        for (int action = graph.actionStart(block); action < graph.actionEnd(block); action++) {
+            // the expression is evaluated before its value is assigned
+            for (int use = actionUseStarts[action]; use < actionUseStarts[action + 1]; use++) {
+                useDefinitions[use] = currentDefinitions[useSymbols[use]];
+            }
+            if (actionDefinitions[action] != -1) {
+                define(actionDefinitions[action], currentDefinitions, replacedSymbols, replacedDefinitions);
+            }
+        }
+        for (int i = 0; i < graph.successorCount(block); i++) {
+            int successor = graph.successor(block, i);
+            int predecessorIndex = 0;
+            while (graph.predecessor(successor, predecessorIndex) != block) {
+                predecessorIndex++;
+            }
+            for (int p = phiStarts[successor]; p < phiStarts[successor + 1]; p++) {
+                int operand = phiOperandStarts[phis[p]] + predecessorIndex;
+                useDefinitions[operand] = currentDefinitions[useSymbols[operand]];
+            }
+        }
+    }
+
+    private void define(int definition, int[] currentDefinitions, IntList replacedSymbols, IntList replacedDefinitions) {
+        int symbolId = definitionSymbols[definition];
+        replacedSymbols.add(symbolId);
+        replacedDefinitions.add(currentDefinitions[symbolId]);
+        currentDefinitions[symbolId] = definition;
+    }
+
+    // uses grouped by their definitions, uses of undefined values are left out
+    private int[] groupUses() {
+        IntList definitions = new IntList(useDefinitions.length);
+        IntList uses = new IntList(useDefinitions.length);
+        for (int use = 0; use < useDefinitions.length; use++) {
+            if (useDefinitions[use] != UNDEFINED) {
+                definitions.add(useDefinitions[use]);
+                uses.add(use);
+            }
+        }
+        return ControlFlowGraph.groupByKey(definitions.toArray(), uses.toArray(), definitionUseStarts);
+    }
+
+    // blocks where dominance of each block ends - join points reached from it, but not only through it
+    private static int[] dominanceFrontiers(ControlFlowGraph graph, int[] starts) {
+        IntList sources = new IntList();
+        IntList frontiers = new IntList();
+        for (int block = 0; block < graph.blockCount(); block++) {
+            if (graph.predecessorCount(block) < 2) {
+                continue;
+            }
+            for (int i = 0; i < graph.predecessorCount(block); i++) {
+                for (int runner = graph.predecessor(block, i); runner != graph.immediateDominator(block); runner = graph.immediateDominator(runner)) {
+                    sources.add(runner);
+                    frontiers.add(block);
+                }
+            }
+        }
+        return ControlFlowGraph.groupByKey(sources.toArray(), frontiers.toArray(), starts);
+    }
+}
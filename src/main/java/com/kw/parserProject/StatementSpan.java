@@ -0,0 +1,9 @@
+package com.kw.parserProject;
+
+import java.util.List;
+
+// number of tokens a statement was parsed from. statements of a list follow each other without gaps,
+// so positions are derived by summing lengths. headerLength covers tokens before the first nested statement,
+// children are nested statements of 'while', or statements of 'if' followed by statements of its 'else' section
+record StatementSpan(int length, int headerLength, List<StatementSpan> children) {
+}
@@ -0,0 +1,96 @@
+package com.kw.parserProject;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// interns variable names, giving each distinct name a dense id starting from 0, in order of first appearance.
+// names can be interned straight from a range of the lexed text - the name is copied only the first time it is seen
+public final class SymbolTable {
+    private static final SymbolTable DEFAULT = new SymbolTable();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY * 2]; // open addressing, holds id + 1, 0 marks an empty slot
+    private int size = 0;
+
+    // table of tokens and AST nodes created by hand without a table, so that they are comparable with each other.
+    // lexers don't use it, each of them has a table of its own
+    public static SymbolTable defaultTable() {
+        return DEFAULT;
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    public synchronized int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id == -1) {
+                return add(text.subSequence(start, end).toString(), hash, slot);
+            }
+            if (hashes[id] == hash && sameName(names[id], text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    public synchronized String name(int id) {
+        return names[Objects.checkIndex(id, size)];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        // keep the slots at most half full
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean sameName(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
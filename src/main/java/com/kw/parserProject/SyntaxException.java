@@ -0,0 +1,44 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.TokenKind;
+
+// error found by the lexer or the parser. it is an expected outcome of processing invalid input,
+// so its stack trace is not captured
+public class SyntaxException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final int position;
+    private final TokenKind expected;
+    private final TokenKind actual;
+
+    // position is a character index in the lexed line, or an index of token for parsing errors
+    public SyntaxException(String message, int position, TokenKind expected, TokenKind actual) {
+        super(message);
+        this.position = position;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public SyntaxException(String message, int position) {
+        this(message, position, null, null);
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    // null if there was no specific token kind expected
+    public TokenKind getExpected() {
+        return expected;
+    }
+
+    // null if all tokens were already consumed, or for lexing errors
+    public TokenKind getActual() {
+        return actual;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,107 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.TokenKind;
+import com.kw.parserProject.tokens.TokenSource;
+
+// mutable read position in a token source, parsing steps advance it instead of returning the next index
+final class TokenCursor {
+    private final TokenSource tokens;
+    private int position = 0;
+
+    TokenCursor(TokenSource tokens) {
+        this.tokens = tokens;
+    }
+
+    int position() {
+        return position;
+    }
+
+    boolean isConsumed() {
+        return !tokens.hasToken(position);
+    }
+
+    // token before current position is kept, its line is reported for errors past the last token
+    void releaseConsumedTokens() {
+        tokens.release(position - 1);
+    }
+
+    void advance() {
+        position++;
+    }
+
+    void advance(int count) {
+        position += count;
+    }
+
+    void moveTo(int position) {
+        this.position = position;
+    }
+
+    // kind of token at given distance from current position, null past the last token
+    TokenKind peek(int offset) {
+        int index = position + offset;
+        return tokens.hasToken(index) ? tokens.kind(index) : null;
+    }
+
+    TokenKind peek() {
+        return peek(0);
+    }
+
+    // operator at current position, null if there is no operator
+    Operator peekOperator() {
+        return peek() == TokenKind.OPERATOR ? tokens.operator(position) : null;
+    }
+
+    // keyword at current position, null if there is no keyword
+    Keyword peekKeyword() {
+        return peek() == TokenKind.KEYWORD ? tokens.keyword(position) : null;
+    }
+
+    void expect(int offset, TokenKind expectedKind) {
+        TokenKind tokenKind = peek(offset);
+        if (tokenKind != expectedKind) {
+            throw unexpected(offset, expectedKind);
+        }
+    }
+
+    SyntaxException unexpected(int offset, TokenKind expectedKind) {
+        TokenKind tokenKind = peek(offset);
+        if (tokenKind == null) {
+            return new SyntaxException("All tokens already consumed", position + offset, expectedKind, null);
+        }
+        return new SyntaxException("Expected " + expectedKind.tokenClass.getName() + ", got " + tokenKind.tokenClass,
+                position + offset, expectedKind, tokenKind);
+    }
+
+    void expect(TokenKind expectedKind) {
+        expect(0, expectedKind);
+    }
+
+    int lineNumber() {
+        return tokens.lineNumber(position);
+    }
+
+    // past the last token, line of the last token is used
+    int lineNumberAt(int index) {
+        if (tokens.size() == 0) {
+            return 0;
+        }
+        return tokens.lineNumber(Math.min(index, tokens.size() - 1));
+    }
+
+    float numericValue(int offset) {
+        return tokens.numericValue(position + offset);
+    }
+
+    int symbolId() {
+        return tokens.symbolId(position);
+    }
+
+    String text(int offset) {
+        return tokens.text(position + offset);
+    }
+
+    String text() {
+        return text(0);
+    }
+}
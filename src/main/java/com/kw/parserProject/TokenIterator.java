@@ -0,0 +1,40 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.Token;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// lexes lines lazily - only tokens of the line currently being consumed are kept in memory,
+// lexing errors are thrown from hasNext()/next() once the offending line is reached
+class TokenIterator implements Iterator<Token> {
+    private final Lexer lexer;
+    private final Iterator<? extends CharSequence> lines;
+    private final ArrayDeque<Token> lineTokens = new ArrayDeque<>();
+    private int lineNumber = 0;
+
+    TokenIterator(Lexer lexer, Iterator<? extends CharSequence> lines) {
+        this.lexer = lexer;
+        this.lines = lines;
+    }
+
+    @Override
+    public boolean hasNext() {
+        // skip over lines without any tokens, like empty ones
+        while (lineTokens.isEmpty() && lines.hasNext()) {
+            lineNumber++;
+            lexer.parseLine(lines.next(), lineTokens);
+            lineTokens.forEach(token -> token.addLineNumber(lineNumber));
+        }
+        return !lineTokens.isEmpty();
+    }
+
+    @Override
+    public Token next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return lineTokens.poll();
+    }
+}
@@ -1,16 +1,19 @@
 package com.kw.parserProject;
 
 import com.kw.parserProject.statements.*;
+import com.kw.parserProject.utility.IntList;
+import com.kw.parserProject.utility.PersistentIntMap;
+import com.kw.parserProject.utility.SymbolSet;
 
 import java.util.*;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class UnusedStatementChecker {
 
     List<Statement> getUnusedStatements(Program program) {
         List<Statement> unusedOverwrittenAssignmentsFromStatements = new LinkedList<>();
-        Map<String, List<Statement>> recentAssignments = new HashMap<>();
+        RecentAssignments recentAssignments = new RecentAssignments(Symbols.of(program));
 
         for (Statement parsedAssignment : program.statements()) {
             updateUnusedStatements(unusedOverwrittenAssignmentsFromStatements, recentAssignments, parsedAssignment, false);
@@ -18,11 +21,35 @@ public class UnusedStatementChecker {
 
         return Stream.concat(
                 unusedOverwrittenAssignmentsFromStatements.stream(),
-                recentAssignments.values().stream().flatMap(Collection::stream)
+                recentAssignments.statements()
         ).sorted(Comparator.comparing(HasLineNumber::getLineNumber)).toList();
     }
 
-    private void updateUnusedStatements(List<Statement> unusedStatements, Map<String, List<Statement>> recentAssignments, Statement statement, boolean readOnly) {
+    // same analysis walking a flat program, returns indices of unused assignment nodes ordered by their line numbers
+    int[] getUnusedStatements(FlatProgram program) {
+        IntList unusedNodes = new IntList();
+        RecentAssignmentNodes recentAssignments = new RecentAssignmentNodes();
+        IntList pendingNodes = new IntList();
+
+        for (int statement = program.firstChild(program.root()); statement != -1; statement = program.nextSibling(statement)) {
+            updateUnusedNodes(program, unusedNodes, recentAssignments, pendingNodes, statement, false);
+        }
+        recentAssignments.appendTo(program, unusedNodes);
+
+        // stable ordering by line number - position in the list is kept in lower bits
+        long[] ordered = new long[unusedNodes.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = (long) program.lineNumber(unusedNodes.get(i)) << 32 | i;
+        }
+        Arrays.sort(ordered);
+        int[] results = new int[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            results[i] = unusedNodes.get((int) ordered[i]);
+        }
+        return results;
+    }
+
+    private void updateUnusedStatements(List<Statement> unusedStatements, RecentAssignments recentAssignments, Statement statement, boolean readOnly) {
         switch (statement) {
             case IfStatement ifStatement -> handleIfs(unusedStatements, recentAssignments, ifStatement, readOnly);
             case WhileStatement whileStatement ->
@@ -34,25 +61,22 @@ public class UnusedStatementChecker {
         }
     }
 
-    private void handleAssignment(List<Statement> unusedStatements, Map<String, List<Statement>> recentAssignments, Assignment statement, boolean readOnly) {
+    private void handleAssignment(List<Statement> unusedStatements, RecentAssignments recentAssignments, Assignment statement, boolean readOnly) {
         // remove read variables
-        statement.expression().readVariables().forEach(recentAssignments::remove);
+        recentAssignments.removeAll(statement.expression());
         if (readOnly) return;
 
-        String writeVariable = statement.writeVariable();
-        List<Statement> recentlyDefinedStatementsForVariable = recentAssignments.computeIfAbsent(writeVariable, _ -> new ArrayList<>());
-        if (!recentlyDefinedStatementsForVariable.isEmpty()) {
+        // let's populate recent assignments with the freshest entry
+        AssignmentList recentlyDefinedStatementsForVariable = recentAssignments.replace(statement);
+        if (recentlyDefinedStatementsForVariable != null) {
             // value was written to, but never read up to this point, let's store it
-            unusedStatements.addAll(recentlyDefinedStatementsForVariable);
-            recentlyDefinedStatementsForVariable.clear();
+            recentlyDefinedStatementsForVariable.report(unusedStatements::add);
         }
-        // let's populate recent assignments with the freshest entry
-        recentlyDefinedStatementsForVariable.add(statement);
     }
 
-    private void handleWhileStatement(List<Statement> unusedStatements, Map<String, List<Statement>> recentAssignments, WhileStatement statement, boolean readOnly) {
+    private void handleWhileStatement(List<Statement> unusedStatements, RecentAssignments recentAssignments, WhileStatement statement, boolean readOnly) {
         // condition - called when entering the loop
-        statement.condition().readVariables().forEach(recentAssignments::remove);
+        recentAssignments.removeAll(statement.condition());
 
         // iterate through statements inside twice
         // once with "read-write" mode to record new assignments and mark any reassignments,
@@ -61,29 +85,320 @@ public class UnusedStatementChecker {
         statement.statements().forEach(subStatement -> updateUnusedStatements(unusedStatements, recentAssignments, subStatement, true));
 
         // condition - called when evaluating before leaving the loop
-        statement.condition().readVariables().forEach(recentAssignments::remove);
+        recentAssignments.removeAll(statement.condition());
     }
 
-    private void handleIfs(List<Statement> unusedStatements, Map<String, List<Statement>> recentAssignments, IfStatement statement, boolean readOnly) {
+    private void handleIfs(List<Statement> unusedStatements, RecentAssignments recentAssignments, IfStatement statement, boolean readOnly) {
         // condition - called when entering the statement
-        statement.condition().readVariables().forEach(recentAssignments::remove);
+        recentAssignments.removeAll(statement.condition());
 
-        HashMap<String, List<Statement>> recentStateForFirstExecutionBranch = deepCopy(recentAssignments);
-        HashMap<String, List<Statement>> recentStateForSecondExecutionBranch = deepCopy(recentAssignments);
+        RecentAssignments recentStateForFirstExecutionBranch = recentAssignments.snapshot();
+        RecentAssignments recentStateForSecondExecutionBranch = recentAssignments.snapshot();
 
         // execute each if execution path separately, gather the most recent state for all variables
         statement.ifClauseStatements().forEach(subStatement -> updateUnusedStatements(unusedStatements, recentStateForFirstExecutionBranch, subStatement, readOnly));
         statement.elseClauseStatements().forEach(subStatement -> updateUnusedStatements(unusedStatements, recentStateForSecondExecutionBranch, subStatement, readOnly));
 
         // merge the output of both, storing them without overriding each other
-        BiConsumer<String, List<Statement>> collectUnusedVariables = (variable, values) -> recentAssignments.computeIfAbsent(variable, _ -> new ArrayList<>()).addAll(values);
-        recentStateForFirstExecutionBranch.forEach(collectUnusedVariables);
-        recentStateForSecondExecutionBranch.forEach(collectUnusedVariables);
+        recentAssignments.addAll(recentStateForFirstExecutionBranch);
+        recentAssignments.addAll(recentStateForSecondExecutionBranch);
+    }
+
+    private void updateUnusedNodes(FlatProgram program, IntList unusedNodes, RecentAssignmentNodes recentAssignments,
+                                   IntList pendingNodes, int statement, boolean readOnly) {
+        // expression of assignment, condition of blocks
+        int expression = program.firstChild(statement);
+        switch (program.kind(statement)) {
+            case ASSIGNMENT -> {
+                removeReadVariables(program, recentAssignments, pendingNodes, expression);
+                if (readOnly) return;
+
+                NodeList recentlyDefinedNodesForVariable = recentAssignments.replace(program.symbolId(statement), statement);
+                if (recentlyDefinedNodesForVariable != null) {
+                    recentlyDefinedNodesForVariable.appendTo(unusedNodes);
+                }
+            }
+            case WHILE -> {
+                int body = program.nextSibling(expression);
+                removeReadVariables(program, recentAssignments, pendingNodes, expression);
+                for (int subStatement = program.firstChild(body); subStatement != -1; subStatement = program.nextSibling(subStatement)) {
+                    updateUnusedNodes(program, unusedNodes, recentAssignments, pendingNodes, subStatement, readOnly);
+                }
+                for (int subStatement = program.firstChild(body); subStatement != -1; subStatement = program.nextSibling(subStatement)) {
+                    updateUnusedNodes(program, unusedNodes, recentAssignments, pendingNodes, subStatement, true);
+                }
+                removeReadVariables(program, recentAssignments, pendingNodes, expression);
+            }
+            case IF -> {
+                int ifClause = program.nextSibling(expression);
+                int elseClause = program.nextSibling(ifClause);
+                removeReadVariables(program, recentAssignments, pendingNodes, expression);
+
+                RecentAssignmentNodes recentStateForFirstExecutionBranch = recentAssignments.snapshot();
+                RecentAssignmentNodes recentStateForSecondExecutionBranch = recentAssignments.snapshot();
+                for (int subStatement = program.firstChild(ifClause); subStatement != -1; subStatement = program.nextSibling(subStatement)) {
+                    updateUnusedNodes(program, unusedNodes, recentStateForFirstExecutionBranch, pendingNodes, subStatement, readOnly);
+                }
+                for (int subStatement = program.firstChild(elseClause); subStatement != -1; subStatement = program.nextSibling(subStatement)) {
+                    updateUnusedNodes(program, unusedNodes, recentStateForSecondExecutionBranch, pendingNodes, subStatement, readOnly);
+                }
+                recentAssignments.addAll(recentStateForFirstExecutionBranch);
+                recentAssignments.addAll(recentStateForSecondExecutionBranch);
+            }
+            default -> throw new IllegalArgumentException("Undefined statement type: " + program.kind(statement));
+        }
+    }
+
+    // walks the expression subtree with given stack, without allocating
+    private void removeReadVariables(FlatProgram program, RecentAssignmentNodes recentAssignments, IntList pendingNodes, int expression) {
+        pendingNodes.add(expression);
+        while (!pendingNodes.isEmpty()) {
+            int node = pendingNodes.pop();
+            if (program.kind(node) == NodeKind.VARIABLE) {
+                recentAssignments.remove(program.symbolId(node));
+            }
+            for (int child = program.firstChild(node); child != -1; child = program.nextSibling(child)) {
+                pendingNodes.add(child);
+            }
+        }
+    }
+
+    // not yet read assignments of every variable, indexed by variable's symbol id. the map is persistent,
+    // so branches of 'if' start from snapshots that copy nothing and share all variables they don't assign
+    private static final class RecentAssignments {
+        private final Symbols symbols;
+        private PersistentIntMap<AssignmentList> bySymbol;
+
+        RecentAssignments(Symbols symbols) {
+            this(symbols, PersistentIntMap.empty());
+        }
+
+        private RecentAssignments(Symbols symbols, PersistentIntMap<AssignmentList> bySymbol) {
+            this.symbols = symbols;
+            this.bySymbol = bySymbol;
+        }
+
+        void removeAll(Expression expression) {
+            SymbolSet symbolIds = symbols.read(expression);
+            for (int symbolId = symbolIds.nextSymbol(0); symbolId != -1; symbolId = symbolIds.nextSymbol(symbolId + 1)) {
+                bySymbol = bySymbol.without(symbolId);
+            }
+        }
+
+        // makes the statement the only recent assignment of its variable, returns the previous ones or null
+        AssignmentList replace(Assignment statement) {
+            int symbolId = symbols.written(statement);
+            AssignmentList previous = bySymbol.get(symbolId);
+            bySymbol = bySymbol.with(symbolId, new AssignmentList(statement, null, null));
+            return previous;
+        }
+
+        // assignments of the other state are appended to the ones of this state, also when both have the same ones
+        void addAll(RecentAssignments other) {
+            bySymbol = bySymbol.mergeAll(other.bySymbol, AssignmentList::join);
+        }
+
+        RecentAssignments snapshot() {
+            return new RecentAssignments(symbols, bySymbol);
+        }
+
+        // oldest first for every variable, variables ordered by their names - statements of one line are reported
+        // in the same order as when the state was kept in a map keyed by names
+        Stream<Statement> statements() {
+            List<Statement> statements = new ArrayList<>();
+            bySymbol.forEach(assignments -> assignments.report(statements::add));
+            statements.sort(Comparator.comparing(statement -> ((Assignment) statement).writeVariable()));
+            return statements.stream();
+        }
     }
 
-    private HashMap<String, List<Statement>> deepCopy(Map<String, List<Statement>> toCopy) {
-        HashMap<String, List<Statement>> copy = new HashMap<>();
-        toCopy.forEach((key, val) -> copy.put(key, new ArrayList<>(val)));
-        return copy;
+    // ids the analysis keys variables on. a program lexed by one lexer, or built by hand with one table, is analysed
+    // by ids of its nodes. a program mixing nodes of more tables has its names interned again into a table of its own,
+    // so that one name is always one variable
+    private static class Symbols {
+
+        static Symbols of(Program program) {
+            return usesOneTable(program) ? new Symbols() : new ReinternedSymbols();
+        }
+
+        SymbolSet read(Expression expression) {
+            return expression.readSymbolSet();
+        }
+
+        int written(Assignment assignment) {
+            return assignment.writeSymbolId();
+        }
+
+        // every id of the program stands for one name and every name has one id, nodes are walked with a stack
+        private static boolean usesOneTable(Program program) {
+            SymbolNames names = new SymbolNames();
+            List<Statement> pendingStatements = new ArrayList<>(program.statements());
+            List<Expression> pendingExpressions = new ArrayList<>();
+            while (!pendingStatements.isEmpty()) {
+                switch (pendingStatements.removeLast()) {
+                    case Assignment assignment -> {
+                        if (!names.add(assignment.writeVariable(), assignment.writeSymbolId())) {
+                            return false;
+                        }
+                        pendingExpressions.add(assignment.expression());
+                    }
+                    case IfStatement ifStatement -> {
+                        pendingExpressions.add(ifStatement.condition());
+                        pendingStatements.addAll(ifStatement.ifClauseStatements());
+                        pendingStatements.addAll(ifStatement.elseClauseStatements());
+                    }
+                    case WhileStatement whileStatement -> {
+                        pendingExpressions.add(whileStatement.condition());
+                        pendingStatements.addAll(whileStatement.statements());
+                    }
+                    case null, default -> {
+                        // rejected by the analysis itself
+                    }
+                }
+            }
+            while (!pendingExpressions.isEmpty()) {
+                switch (pendingExpressions.removeLast()) {
+                    case VariableExpression variableExpression -> {
+                        if (!names.add(variableExpression.variable(), variableExpression.symbolId())) {
+                            return false;
+                        }
+                    }
+                    case OperatorExpression operatorExpression -> {
+                        pendingExpressions.add(operatorExpression.leftExpression());
+                        pendingExpressions.add(operatorExpression.rightExpression());
+                    }
+                    case BracketExpression bracketExpression -> pendingExpressions.add(bracketExpression.expressionInBrackets());
+                    default -> {
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class ReinternedSymbols extends Symbols {
+        private final SymbolTable symbols = new SymbolTable();
+        private final Map<Expression, SymbolSet> readSymbols = new IdentityHashMap<>();
+
+        @Override
+        SymbolSet read(Expression expression) {
+            return readSymbols.computeIfAbsent(expression, _ -> {
+                SymbolSet symbolIds = SymbolSet.EMPTY;
+                for (String variable : expression.readVariables()) {
+                    symbolIds = symbolIds.union(SymbolSet.of(symbols.intern(variable)));
+                }
+                return symbolIds;
+            });
+        }
+
+        @Override
+        int written(Assignment assignment) {
+            return symbols.intern(assignment.writeVariable());
+        }
+    }
+
+    // names of ids seen so far
+    private static final class SymbolNames {
+        private String[] names = new String[16];
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        // false when the id has another name, or the name another id
+        boolean add(String name, int symbolId) {
+            if (symbolId >= names.length) {
+                names = Arrays.copyOf(names, Math.max(symbolId + 1, names.length * 2));
+            }
+            if (names[symbolId] == null) {
+                names[symbolId] = name;
+                return ids.putIfAbsent(name, symbolId) == null;
+            }
+            return names[symbolId].equals(name);
+        }
+    }
+
+    // not yet read assignments of a variable, oldest first - a single statement, or two lists joined together.
+    // lists are never modified, so joining them copies nothing and states of both branches of 'if' share them
+    private record AssignmentList(Statement statement, AssignmentList first, AssignmentList second) {
+
+        static AssignmentList join(AssignmentList first, AssignmentList second) {
+            return new AssignmentList(null, first, second);
+        }
+
+        // passes statements in order, joined lists are walked with a stack
+        void report(Consumer<Statement> unusedStatements) {
+            List<AssignmentList> pendingLists = new ArrayList<>();
+            pendingLists.add(this);
+            while (!pendingLists.isEmpty()) {
+                AssignmentList list = pendingLists.removeLast();
+                if (list.statement != null) {
+                    unusedStatements.accept(list.statement);
+                } else {
+                    pendingLists.add(list.second);
+                    pendingLists.add(list.first);
+                }
+            }
+        }
+    }
+
+    // same as above for nodes of a flat program
+    private static final class RecentAssignmentNodes {
+        private PersistentIntMap<NodeList> bySymbol;
+
+        RecentAssignmentNodes() {
+            this(PersistentIntMap.empty());
+        }
+
+        private RecentAssignmentNodes(PersistentIntMap<NodeList> bySymbol) {
+            this.bySymbol = bySymbol;
+        }
+
+        void remove(int symbolId) {
+            bySymbol = bySymbol.without(symbolId);
+        }
+
+        NodeList replace(int symbolId, int node) {
+            NodeList previous = bySymbol.get(symbolId);
+            bySymbol = bySymbol.with(symbolId, new NodeList(node, null, null));
+            return previous;
+        }
+
+        void addAll(RecentAssignmentNodes other) {
+            bySymbol = bySymbol.mergeAll(other.bySymbol, NodeList::join);
+        }
+
+        RecentAssignmentNodes snapshot() {
+            return new RecentAssignmentNodes(bySymbol);
+        }
+
+        void appendTo(FlatProgram program, IntList nodes) {
+            IntList recentNodes = new IntList();
+            bySymbol.forEach(nodeList -> nodeList.appendTo(recentNodes));
+            Integer[] ordered = Arrays.stream(recentNodes.toArray()).boxed().toArray(Integer[]::new);
+            Arrays.sort(ordered, Comparator.comparing(program::text));
+            for (int node : ordered) {
+                nodes.add(node);
+            }
+        }
+    }
+
+    // node is -1 for joined lists
+    private record NodeList(int node, NodeList first, NodeList second) {
+
+        static NodeList join(NodeList first, NodeList second) {
+            return new NodeList(-1, first, second);
+        }
+
+        void appendTo(IntList nodes) {
+            List<NodeList> pendingLists = new ArrayList<>();
+            pendingLists.add(this);
+            while (!pendingLists.isEmpty()) {
+                NodeList list = pendingLists.removeLast();
+                if (list.node != -1) {
+                    nodes.add(list.node);
+                } else {
+                    pendingLists.add(list.second);
+                    pendingLists.add(list.first);
+                }
+            }
+        }
     }
 }
@@ -1,12 +1,25 @@
 package com.kw.parserProject.statements;
 
+import com.kw.parserProject.SymbolTable;
 import com.kw.parserProject.utility.Printable;
 
-public record Assignment(String writeVariable, Expression expression, int lineNumber) implements Statement, Printable {
+public record Assignment(String writeVariable, int writeSymbolId, Expression expression, int lineNumber) implements Statement, Printable {
     public Assignment(String writeVariable, Expression expression) {
         this(writeVariable, expression, -1);
     }
 
+    public Assignment(String writeVariable, Expression expression, int lineNumber) {
+        this(writeVariable, SymbolTable.defaultTable(), expression, lineNumber);
+    }
+
+    public Assignment(String writeVariable, SymbolTable symbols, Expression expression) {
+        this(writeVariable, symbols, expression, -1);
+    }
+
+    public Assignment(String writeVariable, SymbolTable symbols, Expression expression, int lineNumber) {
+        this(writeVariable, symbols.intern(writeVariable), expression, lineNumber);
+    }
+
     @Override
     public String toString() {
         return print();
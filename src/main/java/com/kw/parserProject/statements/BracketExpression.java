@@ -1,8 +1,18 @@
 package com.kw.parserProject.statements;
 
+import com.kw.parserProject.utility.SymbolSet;
+
 import java.util.List;
+import java.util.Objects;
+
+public final class BracketExpression implements Expression {
+    private final Expression expressionInBrackets;
+    private final int hash; // cached, so that hashing deeply nested brackets does not recurse
 
-public record BracketExpression(Expression expressionInBrackets) implements Expression {
+    public BracketExpression(Expression expressionInBrackets) {
+        this.expressionInBrackets = expressionInBrackets;
+        this.hash = Objects.hash(expressionInBrackets);
+    }
 
     @Override
     public List<String> readVariables() {
@@ -10,8 +20,37 @@ public record BracketExpression(Expression expressionInBrackets) implements Expr
         return expressionInBrackets.readVariables();
     }
 
+    @Override
+    public SymbolSet readSymbolSet() {
+        return expressionInBrackets.readSymbolSet();
+    }
+
     @Override
     public String print() {
         return "(" + expressionInBrackets.print() + ")";
     }
+
+    public Expression expressionInBrackets() {
+        return expressionInBrackets;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (obj == null || obj.getClass() != this.getClass()) return false;
+        var that = (BracketExpression) obj;
+        if (this.hash != that.hash) return false;
+        return Objects.equals(this.expressionInBrackets, that.expressionInBrackets);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "BracketExpression[" +
+                "expressionInBrackets=" + expressionInBrackets + ']';
+    }
 }
@@ -1,9 +1,18 @@
 package com.kw.parserProject.statements;
 
 import com.kw.parserProject.utility.Printable;
+import com.kw.parserProject.utility.SymbolSet;
 
 import java.util.List;
 
 public interface Expression extends Printable {
     List<String> readVariables();
+
+    // symbol ids of read variables, computed once when the expression is created
+    SymbolSet readSymbolSet();
+
+    // symbol ids of read variables, without duplicates
+    default int[] readSymbols() {
+        return readSymbolSet().toArray();
+    }
 }
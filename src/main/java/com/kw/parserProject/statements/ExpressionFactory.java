@@ -0,0 +1,68 @@
+package com.kw.parserProject.statements;
+
+import com.kw.parserProject.Operator;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// creates expression nodes for the parser, a new node every time
+public class ExpressionFactory {
+
+    // factory hash-consing nodes - equal expressions are created once and shared by all their occurrences.
+    // operands are interned before their operators, so comparing two candidates compares operands by reference.
+    // interned nodes are held weakly and disappear from the table once no program uses them
+    public static ExpressionFactory interning() {
+        return new InterningExpressionFactory();
+    }
+
+    public Expression operator(Expression leftExpression, Operator operator, Expression rightExpression) {
+        return new OperatorExpression(leftExpression, operator, rightExpression);
+    }
+
+    public Expression bracket(Expression expressionInBrackets) {
+        return new BracketExpression(expressionInBrackets);
+    }
+
+    public Expression value(float value, String stringRepresentation) {
+        return new ValueExpression(value, stringRepresentation);
+    }
+
+    public Expression variable(String variable, int symbolId) {
+        return new VariableExpression(variable, symbolId);
+    }
+
+    private static final class InterningExpressionFactory extends ExpressionFactory {
+        private final Map<Expression, WeakReference<Expression>> internedExpressions = new WeakHashMap<>();
+
+        @Override
+        public Expression operator(Expression leftExpression, Operator operator, Expression rightExpression) {
+            return intern(super.operator(leftExpression, operator, rightExpression));
+        }
+
+        @Override
+        public Expression bracket(Expression expressionInBrackets) {
+            return intern(super.bracket(expressionInBrackets));
+        }
+
+        @Override
+        public Expression value(float value, String stringRepresentation) {
+            return intern(super.value(value, stringRepresentation));
+        }
+
+        @Override
+        public Expression variable(String variable, int symbolId) {
+            return intern(super.variable(variable, symbolId));
+        }
+
+        private synchronized Expression intern(Expression expression) {
+            WeakReference<Expression> internedReference = internedExpressions.get(expression);
+            Expression interned = internedReference != null ? internedReference.get() : null;
+            if (interned == null) {
+                internedExpressions.put(expression, new WeakReference<>(expression));
+                return expression;
+            }
+            return interned;
+        }
+    }
+}
@@ -1,39 +1,57 @@
 package com.kw.parserProject.statements;
 
 import com.kw.parserProject.Operator;
+import com.kw.parserProject.utility.SymbolSet;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 
 public final class OperatorExpression implements Expression {
-    private Expression leftExpression;
+    private final Expression leftExpression;
     private final Operator operator;
     private final Expression rightExpression;
+    private final int hash; // operands cache their hashes too, so it is computed in constant time
+    private final SymbolSet readSymbols;
 
     public OperatorExpression(Expression leftExpression, Operator operator,
                               Expression rightExpression) {
         this.leftExpression = leftExpression;
         this.operator = operator;
         this.rightExpression = rightExpression;
+        this.hash = Objects.hash(leftExpression, operator, rightExpression);
+        this.readSymbols = leftExpression.readSymbolSet().union(rightExpression.readSymbolSet());
     }
 
     @Override
     public List<String> readVariables() {
-        // operators - return both operand sides,
-        HashSet<String> usedVariables = new HashSet<>(leftExpression.readVariables());
-        usedVariables.addAll(rightExpression.readVariables());
+        // operators - return both operand sides, walked without recursion into a single set
+        HashSet<String> usedVariables = new HashSet<>();
+        ArrayDeque<Expression> pendingExpressions = new ArrayDeque<>();
+        pendingExpressions.push(this);
+        while (!pendingExpressions.isEmpty()) {
+            switch (pendingExpressions.pop()) {
+                case OperatorExpression operatorExpression -> {
+                    pendingExpressions.push(operatorExpression.rightExpression);
+                    pendingExpressions.push(operatorExpression.leftExpression);
+                }
+                case BracketExpression bracketExpression -> pendingExpressions.push(bracketExpression.expressionInBrackets());
+                case Expression expression -> usedVariables.addAll(expression.readVariables());
+            }
+        }
         return new ArrayList<>(usedVariables);
     }
 
     @Override
-    public String print() {
-        return leftExpression.print() + " " + operator.print() + " " + rightExpression.print();
+    public SymbolSet readSymbolSet() {
+        return readSymbols;
     }
 
-    public void setLeftExpression(Expression leftExpression) {
-        this.leftExpression = leftExpression;
+    @Override
+    public String print() {
+        return leftExpression.print() + " " + operator.print() + " " + rightExpression.print();
     }
 
     public Expression leftExpression() {
@@ -53,6 +71,7 @@ public final class OperatorExpression implements Expression {
         if (obj == this) return true;
         if (obj == null || obj.getClass() != this.getClass()) return false;
         var that = (OperatorExpression) obj;
+        if (this.hash != that.hash) return false;
         return Objects.equals(this.leftExpression, that.leftExpression) &&
                 Objects.equals(this.operator, that.operator) &&
                 Objects.equals(this.rightExpression, that.rightExpression);
@@ -60,7 +79,7 @@ public final class OperatorExpression implements Expression {
 
     @Override
     public int hashCode() {
-        return Objects.hash(leftExpression, operator, rightExpression);
+        return hash;
     }
 
     @Override
@@ -1,10 +1,13 @@
 package com.kw.parserProject.statements;
 
+import com.kw.parserProject.utility.NumericLiterals;
+import com.kw.parserProject.utility.SymbolSet;
+
 import java.util.List;
 
-public record ValueExpression(Float value, String stringRepresentation) implements Expression {
+public record ValueExpression(float value, String stringRepresentation) implements Expression {
     public ValueExpression(String stringRepresentation) {
-        this(Float.parseFloat(stringRepresentation), stringRepresentation);
+        this(parseValue(stringRepresentation), stringRepresentation);
     }
 
     @Override
@@ -13,10 +16,22 @@ public record ValueExpression(Float value, String stringRepresentation) implemen
         return List.of();
     }
 
+    @Override
+    public SymbolSet readSymbolSet() {
+        return SymbolSet.EMPTY;
+    }
+
     @Override
     public String print() {
         // uses string representation to prettily print the number, even if input was a plain integer
         return stringRepresentation;
     }
 
+    private static float parseValue(String stringRepresentation) {
+        // negated constants are spelled with a leading minus sign
+        if (stringRepresentation.startsWith("-")) {
+            return -NumericLiterals.parseFloat(stringRepresentation, 1, stringRepresentation.length());
+        }
+        return NumericLiterals.parseFloat(stringRepresentation, 0, stringRepresentation.length());
+    }
 }
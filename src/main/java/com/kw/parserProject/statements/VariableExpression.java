@@ -1,15 +1,71 @@
 package com.kw.parserProject.statements;
 
+import com.kw.parserProject.SymbolTable;
+import com.kw.parserProject.utility.SymbolSet;
+
 import java.util.List;
+import java.util.Objects;
+
+public final class VariableExpression implements Expression {
+    private final String variable;
+    private final int symbolId;
+    private final SymbolSet readSymbols; // kept, so that sets of high symbol ids are not created on every call
+
+    public VariableExpression(String variable, int symbolId) {
+        this.variable = variable;
+        this.symbolId = symbolId;
+        this.readSymbols = SymbolSet.of(symbolId);
+    }
+
+    public VariableExpression(String variable) {
+        this(variable, SymbolTable.defaultTable());
+    }
+
+    public VariableExpression(String variable, SymbolTable symbols) {
+        this(variable, symbols.intern(variable));
+    }
 
-public record VariableExpression(String variable) implements Expression {
     @Override
     public List<String> readVariables() {
         return List.of(variable);
     }
 
+    @Override
+    public SymbolSet readSymbolSet() {
+        return readSymbols;
+    }
+
     @Override
     public String print() {
         return variable;
     }
+
+    public String variable() {
+        return variable;
+    }
+
+    public int symbolId() {
+        return symbolId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (obj == null || obj.getClass() != this.getClass()) return false;
+        var that = (VariableExpression) obj;
+        return Objects.equals(this.variable, that.variable) &&
+                this.symbolId == that.symbolId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(variable, symbolId);
+    }
+
+    @Override
+    public String toString() {
+        return "VariableExpression[" +
+                "variable=" + variable + ", " +
+                "symbolId=" + symbolId + ']';
+    }
 }
@@ -2,6 +2,6 @@ package com.kw.parserProject.tokens;
 
 public class AssignmentToken extends Token {
     public AssignmentToken() {
-        super("=");
+        super("=", TokenKind.ASSIGNMENT);
     }
 }
@@ -2,6 +2,6 @@ package com.kw.parserProject.tokens;
 
 public class ClosingBracketToken extends Token {
     public ClosingBracketToken() {
-        super(")");
+        super(")", TokenKind.CLOSING_BRACKET);
     }
 }
@@ -1,7 +1,20 @@
 package com.kw.parserProject.tokens;
 
+import com.kw.parserProject.utility.NumericLiterals;
+
 public class ConstantToken extends Token {
+    private final float value;
+
     public ConstantToken(String data) {
-        super(data);
+        this(data, NumericLiterals.parseFloat(data, 0, data.length()));
+    }
+
+    public ConstantToken(String data, float value) {
+        super(data, TokenKind.CONSTANT);
+        this.value = value;
+    }
+
+    public float getValue() {
+        return value;
     }
 }
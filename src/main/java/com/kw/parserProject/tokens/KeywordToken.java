@@ -1,7 +1,21 @@
 package com.kw.parserProject.tokens;
 
+import com.kw.parserProject.Keyword;
+
 public class KeywordToken extends Token {
+    private final Keyword keyword;
+
     public KeywordToken(String data) {
-        super(data);
+        super(data, TokenKind.KEYWORD);
+        this.keyword = Keyword.resolve(data);
+    }
+
+    public KeywordToken(Keyword keyword) {
+        super(keyword.print(), TokenKind.KEYWORD);
+        this.keyword = keyword;
+    }
+
+    public Keyword getKeyword() {
+        return keyword;
     }
 }
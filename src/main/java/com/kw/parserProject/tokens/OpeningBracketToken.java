@@ -2,6 +2,6 @@ package com.kw.parserProject.tokens;
 
 public class OpeningBracketToken extends Token {
     public OpeningBracketToken() {
-        super("(");
+        super("(", TokenKind.OPENING_BRACKET);
     }
 }
@@ -6,7 +6,7 @@ public class OperatorToken extends Token {
     private final Operator operator;
 
     public OperatorToken(Operator resolvedOperator) {
-        super(resolvedOperator.name());
+        super(resolvedOperator.name(), TokenKind.OPERATOR);
         this.operator = resolvedOperator;
     }
 
@@ -1,15 +1,36 @@
 package com.kw.parserProject.tokens;
 
+import com.kw.parserProject.Keyword;
+import com.kw.parserProject.Operator;
+
 public abstract class Token {
+    private static final Keyword[] KEYWORDS = Keyword.values();
+    private static final Operator[] OPERATORS = Operator.values();
+
     public final String data;
+    public final TokenKind kind;
     public int lineNumber;
 
-    public Token(String data) {
+    public Token(String data, TokenKind kind) {
         this.data = data;
+        this.kind = kind;
     }
 
     public void addLineNumber(int lineNumber) {
         this.lineNumber = lineNumber;
     }
 
+    // ordinal is interpreted the same way as in TokenBuffer - operator/keyword ordinal, constant value bits or variable symbol id for these kinds, ignored otherwise.
+    // token text is copied out of the source only for variables and constants
+    public static Token of(TokenKind kind, CharSequence source, int start, int end, int ordinal) {
+        return switch (kind) {
+            case VARIABLE -> new VariableToken(source.subSequence(start, end).toString(), ordinal);
+            case CONSTANT -> new ConstantToken(source.subSequence(start, end).toString(), Float.intBitsToFloat(ordinal));
+            case KEYWORD -> new KeywordToken(KEYWORDS[ordinal]);
+            case OPERATOR -> new OperatorToken(OPERATORS[ordinal]);
+            case ASSIGNMENT -> new AssignmentToken();
+            case OPENING_BRACKET -> new OpeningBracketToken();
+            case CLOSING_BRACKET -> new ClosingBracketToken();
+        };
+    }
 }
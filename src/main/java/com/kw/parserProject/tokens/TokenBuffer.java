@@ -0,0 +1,167 @@
+package com.kw.parserProject.tokens;
+
+import com.kw.parserProject.Keyword;
+import com.kw.parserProject.Operator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// compact token stream - tokens are stored in parallel primitive arrays instead of one object per token.
+// token text is not copied, tokens point back into the lexed source by offsets.
+// ordinal holds the operator/keyword ordinal, raw bits of constant's value or variable's symbol id, depending on token kind
+public class TokenBuffer implements TokenSource {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final Operator[] OPERATORS = Operator.values();
+    private static final Keyword[] KEYWORDS = Keyword.values();
+
+    private final CharSequence source;
+    private byte[] kinds;
+    private int[] starts;
+    private int[] ends;
+    private int[] lineNumbers;
+    private int[] ordinals;
+    private int size = 0;
+
+    public TokenBuffer(CharSequence source) {
+        this(source, INITIAL_CAPACITY);
+    }
+
+    public TokenBuffer(CharSequence source, int initialCapacity) {
+        this.source = source;
+        int capacity = Math.max(initialCapacity, 1);
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.lineNumbers = new int[capacity];
+        this.ordinals = new int[capacity];
+    }
+
+    public void add(TokenKind kind, int start, int end, int lineNumber, int ordinal) {
+        if (size == kinds.length) {
+            grow();
+        }
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        lineNumbers[size] = lineNumber;
+        ordinals[size] = ordinal;
+        size++;
+    }
+
+    // appends all tokens of the other buffer, moving them by given number of lines
+    public void append(TokenBuffer other, int lineNumberShift) {
+        while (size + other.size > kinds.length) {
+            grow();
+        }
+        System.arraycopy(other.kinds, 0, kinds, size, other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.ends, 0, ends, size, other.size);
+        System.arraycopy(other.ordinals, 0, ordinals, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            lineNumbers[size + i] = other.lineNumbers[i] + lineNumberShift;
+        }
+        size += other.size;
+    }
+
+    // same as above, but also translates symbol ids of appended variables - other's id i becomes symbolIds[i]
+    public void append(TokenBuffer other, int lineNumberShift, int[] symbolIds) {
+        int firstAppended = size;
+        append(other, lineNumberShift);
+        for (int i = firstAppended; i < size; i++) {
+            if (kinds[i] == TokenKind.VARIABLE.ordinal()) {
+                ordinals[i] = symbolIds[ordinals[i]];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TokenKind kind(int index) {
+        return KINDS[kinds[checkIndex(index)]];
+    }
+
+    @Override
+    public int lineNumber(int index) {
+        return lineNumbers[checkIndex(index)];
+    }
+
+    @Override
+    public Operator operator(int index) {
+        return kind(index) == TokenKind.OPERATOR ? OPERATORS[ordinals[index]] : null;
+    }
+
+    @Override
+    public Keyword keyword(int index) {
+        return kind(index) == TokenKind.KEYWORD ? KEYWORDS[ordinals[index]] : null;
+    }
+
+    @Override
+    public float numericValue(int index) {
+        return Float.intBitsToFloat(ordinals[checkIndex(index)]);
+    }
+
+    @Override
+    public int symbolId(int index) {
+        return ordinals[checkIndex(index)];
+    }
+
+    @Override
+    public String text(int index) {
+        // keeps the same data as token objects, so operators are described by their names
+        return switch (kind(index)) {
+            case OPERATOR -> OPERATORS[ordinals[index]].name();
+            case KEYWORD -> KEYWORDS[ordinals[index]].print();
+            default -> source.subSequence(starts[index], ends[index]).toString();
+        };
+    }
+
+    public int start(int index) {
+        return starts[checkIndex(index)];
+    }
+
+    public int end(int index) {
+        return ends[checkIndex(index)];
+    }
+
+    public int ordinal(int index) {
+        return ordinals[checkIndex(index)];
+    }
+
+    public CharSequence source() {
+        return source;
+    }
+
+    public Token toToken(int index) {
+        Token token = Token.of(kind(index), source, starts[index], ends[index], ordinals[index]);
+        token.addLineNumber(lineNumbers[index]);
+        return token;
+    }
+
+    public List<Token> toTokens() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(toToken(i));
+        }
+        return tokens;
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+
+    private void grow() {
+        int newCapacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, newCapacity);
+        starts = Arrays.copyOf(starts, newCapacity);
+        ends = Arrays.copyOf(ends, newCapacity);
+        lineNumbers = Arrays.copyOf(lineNumbers, newCapacity);
+        ordinals = Arrays.copyOf(ordinals, newCapacity);
+    }
+}
@@ -0,0 +1,18 @@
+package com.kw.parserProject.tokens;
+
+public enum TokenKind {
+    VARIABLE(VariableToken.class),
+    CONSTANT(ConstantToken.class),
+    KEYWORD(KeywordToken.class),
+    OPERATOR(OperatorToken.class),
+    ASSIGNMENT(AssignmentToken.class),
+    OPENING_BRACKET(OpeningBracketToken.class),
+    CLOSING_BRACKET(ClosingBracketToken.class);
+
+    // kept to describe token kinds in error messages the same way as token classes
+    public final Class<? extends Token> tokenClass;
+
+    TokenKind(Class<? extends Token> tokenClass) {
+        this.tokenClass = tokenClass;
+    }
+}
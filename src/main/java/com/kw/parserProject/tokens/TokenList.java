@@ -0,0 +1,79 @@
+package com.kw.parserProject.tokens;
+
+import com.kw.parserProject.Keyword;
+import com.kw.parserProject.Operator;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+public class TokenList implements TokenSource {
+    private final List<Token> tokens;
+    private final int size;
+    // lists without random access are walked with an iterator - parser reads tokens close to each other,
+    // so moving it to the requested index is cheap and the list doesn't have to be copied
+    private final ListIterator<Token> iterator;
+
+    public TokenList(List<Token> tokens) {
+        this.tokens = tokens;
+        this.size = tokens.size();
+        this.iterator = tokens instanceof RandomAccess ? null : tokens.listIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TokenKind kind(int index) {
+        return get(index).kind;
+    }
+
+    @Override
+    public int lineNumber(int index) {
+        return get(index).lineNumber;
+    }
+
+    @Override
+    public Operator operator(int index) {
+        return get(index) instanceof OperatorToken operatorToken ? operatorToken.getOperator() : null;
+    }
+
+    @Override
+    public Keyword keyword(int index) {
+        return get(index) instanceof KeywordToken keywordToken ? keywordToken.getKeyword() : null;
+    }
+
+    @Override
+    public float numericValue(int index) {
+        return ((ConstantToken) get(index)).getValue();
+    }
+
+    @Override
+    public int symbolId(int index) {
+        return ((VariableToken) get(index)).getSymbolId();
+    }
+
+    @Override
+    public String text(int index) {
+        return get(index).data;
+    }
+
+    private Token get(int index) {
+        if (iterator == null) {
+            return tokens.get(index);
+        }
+        Objects.checkIndex(index, size);
+        while (iterator.nextIndex() > index) {
+            iterator.previous();
+        }
+        while (iterator.nextIndex() < index) {
+            iterator.next();
+        }
+        Token token = iterator.next();
+        iterator.previous();
+        return token;
+    }
+}
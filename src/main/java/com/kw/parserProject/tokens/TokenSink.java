@@ -0,0 +1,9 @@
+package com.kw.parserProject.tokens;
+
+@FunctionalInterface
+public interface TokenSink {
+    // start and end are positions of the lexeme within the lexed line,
+    // ordinal is the operator/keyword ordinal for those kinds, raw float bits of the value for constants,
+    // symbol id for variables and -1 otherwise
+    void accept(TokenKind kind, int start, int end, int ordinal);
+}
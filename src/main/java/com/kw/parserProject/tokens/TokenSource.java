@@ -0,0 +1,36 @@
+package com.kw.parserProject.tokens;
+
+import com.kw.parserProject.Keyword;
+import com.kw.parserProject.Operator;
+
+// random access view of a token stream, regardless of how tokens are stored
+public interface TokenSource {
+    int size();
+
+    // whether there is a token at given index, sources lexing on demand read only as far as needed to tell
+    default boolean hasToken(int index) {
+        return index < size();
+    }
+
+    // tokens before given index will not be accessed anymore, so sources lexing on demand can drop them
+    default void release(int index) {
+    }
+
+    TokenKind kind(int index);
+
+    int lineNumber(int index);
+
+    // null if token at given index is not an operator
+    Operator operator(int index);
+
+    // null if token at given index is not a recognized keyword
+    Keyword keyword(int index);
+
+    // only valid for constants
+    float numericValue(int index);
+
+    // only valid for variables
+    int symbolId(int index);
+
+    String text(int index);
+}
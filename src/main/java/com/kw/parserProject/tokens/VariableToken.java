@@ -1,7 +1,24 @@
 package com.kw.parserProject.tokens;
 
+import com.kw.parserProject.SymbolTable;
+
 public class VariableToken extends Token {
+    private final int symbolId;
+
     public VariableToken(String data) {
-        super(data);
+        this(data, SymbolTable.defaultTable());
+    }
+
+    public VariableToken(String data, SymbolTable symbols) {
+        this(data, symbols.intern(data));
+    }
+
+    public VariableToken(String data, int symbolId) {
+        super(data, TokenKind.VARIABLE);
+        this.symbolId = symbolId;
+    }
+
+    public int getSymbolId() {
+        return symbolId;
     }
 }
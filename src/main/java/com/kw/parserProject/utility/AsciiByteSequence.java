@@ -0,0 +1,37 @@
+package com.kw.parserProject.utility;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// char view over ASCII bytes - every byte is exposed as a char, nothing gets decoded or copied
+public class AsciiByteSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int start;
+    private final int end;
+
+    public AsciiByteSequence(ByteBuffer bytes, int start, int end) {
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return new AsciiByteSequence(bytes, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+        return StandardCharsets.US_ASCII.decode(bytes.slice(start, length())).toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.kw.parserProject.utility;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+// splits UTF-8 encoded bytes into lines the same way String.lines() does.
+// ASCII-only lines are exposed in place, only the (rare) lines with multibyte characters get decoded,
+// so that they are lexed exactly as their String counterparts would be
+public class ByteLineIterator implements SourceLines {
+    private final ByteBuffer source;
+    private final int end;
+    private int lineStart;
+    private int nextLineStart;
+    private CharSequence decodedLine = null;
+
+    public ByteLineIterator(ByteBuffer source) {
+        this(source, 0, source.limit());
+    }
+
+    // iterates only over lines in given range, offsets are still relative to the whole source
+    public ByteLineIterator(ByteBuffer source, int start, int end) {
+        this.source = source;
+        this.end = end;
+        this.lineStart = start;
+        this.nextLineStart = start;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLineStart < end;
+    }
+
+    @Override
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        lineStart = nextLineStart;
+        int lineEnd = lineStart;
+        boolean asciiOnly = true;
+        byte current;
+        while (lineEnd < end && (current = source.get(lineEnd)) != '\n' && current != '\r') {
+            asciiOnly &= current >= 0;
+            lineEnd++;
+        }
+
+        nextLineStart = lineEnd + 1;
+        // "\r\n" is a single line break
+        if (lineEnd < end - 1 && source.get(lineEnd) == '\r' && source.get(lineEnd + 1) == '\n') {
+            nextLineStart++;
+        }
+
+        if (asciiOnly) {
+            decodedLine = null;
+            return new AsciiByteSequence(source, lineStart, lineEnd);
+        }
+        decodedLine = StandardCharsets.UTF_8.decode(source.slice(lineStart, lineEnd - lineStart));
+        return decodedLine;
+    }
+
+    @Override
+    public int sourceOffset(int positionInLine) {
+        if (decodedLine == null) {
+            return lineStart + positionInLine;
+        }
+        // count encoded lengths of all characters preceding the position
+        int offset = lineStart;
+        for (int i = 0; i < positionInLine; i++) {
+            offset += utf8Length(decodedLine.charAt(i));
+        }
+        return offset;
+    }
+
+    private static int utf8Length(char character) {
+        if (character < 0x80) return 1;
+        if (character < 0x800) return 2;
+        // each half of a surrogate pair accounts for half of the 4 byte sequence
+        if (Character.isSurrogate(character)) return 2;
+        return 3;
+    }
+}
@@ -0,0 +1,70 @@
+package com.kw.parserProject.utility;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// growable list of primitive ints, avoids boxing of node indices and symbol ids
+public final class IntList {
+    private int[] values;
+    private int size = 0;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int initialCapacity) {
+        this.values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public void addAll(IntList other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size * 2, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    public int get(int index) {
+        Objects.checkIndex(index, size);
+        return values[index];
+    }
+
+    public void set(int index, int value) {
+        Objects.checkIndex(index, size);
+        values[index] = value;
+    }
+
+    public int pop() {
+        Objects.checkIndex(size - 1, size);
+        return values[--size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public IntList copy() {
+        IntList copy = new IntList(size);
+        copy.addAll(this);
+        return copy;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
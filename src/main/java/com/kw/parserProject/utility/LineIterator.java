@@ -0,0 +1,58 @@
+package com.kw.parserProject.utility;
+
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
+
+// splits text into lines the same way String.lines() does,
+// but hands out read-only views of the source instead of copying every line
+public class LineIterator implements SourceLines {
+    private final CharSequence source;
+    private final int end;
+    private int lineStart;
+    private int nextLineStart;
+
+    public LineIterator(CharSequence source) {
+        this(source, 0, source.length());
+    }
+
+    // iterates only over lines in given range, offsets are still relative to the whole source
+    public LineIterator(CharSequence source, int start, int end) {
+        this.source = source;
+        this.end = end;
+        this.lineStart = start;
+        this.nextLineStart = start;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLineStart < end;
+    }
+
+    @Override
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        lineStart = nextLineStart;
+        int lineEnd = lineStart;
+        while (lineEnd < end && !isLineTerminator(source.charAt(lineEnd))) {
+            lineEnd++;
+        }
+
+        nextLineStart = lineEnd + 1;
+        // "\r\n" is a single line break
+        if (lineEnd < end - 1 && source.charAt(lineEnd) == '\r' && source.charAt(lineEnd + 1) == '\n') {
+            nextLineStart++;
+        }
+        return CharBuffer.wrap(source, lineStart, lineEnd);
+    }
+
+    @Override
+    public int sourceOffset(int positionInLine) {
+        return lineStart + positionInLine;
+    }
+
+    private static boolean isLineTerminator(char character) {
+        return character == '\n' || character == '\r';
+    }
+}
@@ -0,0 +1,47 @@
+package com.kw.parserProject.utility;
+
+public final class NumericLiterals {
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    private static final int MAX_DIGITS_IN_LONG = 18;
+    // powers of ten up to 10^10 are exactly representable as floats
+    private static final float[] EXACT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private NumericLiterals() {
+    }
+
+    // parses already validated literal (digits with an optional decimal separator) without creating a String,
+    // results are the same as Float.parseFloat would give
+    public static float parseFloat(CharSequence input, int start, int end) {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = start; i < end; i++) {
+            char character = input.charAt(i);
+            if (character == '.') {
+                fractionDigits = 0;
+                continue;
+            }
+            if (character < '0' || character > '9' || ++digits > MAX_DIGITS_IN_LONG) {
+                return slowParseFloat(input, start, end);
+            }
+            mantissa = mantissa * 10 + (character - '0');
+            if (fractionDigits != -1) {
+                fractionDigits++;
+            }
+        }
+
+        if (fractionDigits <= 0) {
+            // long to float conversion is correctly rounded on its own
+            return (float) mantissa;
+        }
+        if (mantissa <= MAX_EXACT_FLOAT_MANTISSA && fractionDigits < EXACT_POWERS_OF_TEN.length) {
+            // both operands are exact, so the single division is correctly rounded
+            return (float) mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+        }
+        return slowParseFloat(input, start, end);
+    }
+
+    private static float slowParseFloat(CharSequence input, int start, int end) {
+        return Float.parseFloat(input.subSequence(start, end).toString());
+    }
+}
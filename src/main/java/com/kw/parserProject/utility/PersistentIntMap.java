@@ -0,0 +1,161 @@
+package com.kw.parserProject.utility;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+// immutable map from non-negative ints to values, stored as a trie of 32 wide arrays indexed by bits of the key.
+// updates copy only the path to the changed entry, so snapshots are free and versions share all untouched subtrees
+public final class PersistentIntMap<V> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0);
+
+    private final Object[] root; // null when nothing was stored, the lowest level holds values, others hold child arrays
+    private final int shift; // key bits below the root level
+
+    private PersistentIntMap(Object[] root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    // null if there is no value for the key
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key < 0 || root == null || key >>> shift > MASK) {
+            return null;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[key >>> level & MASK];
+            if (node == null) {
+                return null;
+            }
+        }
+        return (V) node[key & MASK];
+    }
+
+    public PersistentIntMap<V> with(int key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key cannot be negative, got: " + key);
+        }
+        Objects.requireNonNull(value, "Value cannot be null");
+        Object[] root = this.root;
+        int shift = this.shift;
+        while (key >>> shift > MASK) {
+            root = raise(root);
+            shift += BITS;
+        }
+        return new PersistentIntMap<>(withValue(root, shift, key, value), shift);
+    }
+
+    public PersistentIntMap<V> without(int key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentIntMap<>(withValue(root, shift, key, null), shift);
+    }
+
+    // entries of both maps, values of keys present in both are combined by given function. subtrees shared by both
+    // maps are kept without calling it, so combining a value with itself has to give the same value
+    public PersistentIntMap<V> merge(PersistentIntMap<V> other, BinaryOperator<V> remapping) {
+        return merge(other, remapping, false);
+    }
+
+    // same as merge, but values present in both maps are combined even when both maps share them
+    public PersistentIntMap<V> mergeAll(PersistentIntMap<V> other, BinaryOperator<V> remapping) {
+        return merge(other, remapping, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PersistentIntMap<V> merge(PersistentIntMap<V> other, BinaryOperator<V> remapping, boolean combineShared) {
+        if (other.root == null || other.root == root && !combineShared) {
+            return this;
+        }
+        if (root == null) {
+            return other;
+        }
+        Object[] root = this.root;
+        Object[] otherRoot = other.root;
+        int shift = Math.max(this.shift, other.shift);
+        for (int level = this.shift; level < shift; level += BITS) {
+            root = raise(root);
+        }
+        for (int level = other.shift; level < shift; level += BITS) {
+            otherRoot = raise(otherRoot);
+        }
+        Object[] merged = merge(root, otherRoot, shift, (BinaryOperator<Object>) remapping, combineShared);
+        return merged == this.root ? this : new PersistentIntMap<>(merged, shift);
+    }
+
+    // values in order of their keys
+    public void forEach(Consumer<? super V> action) {
+        forEach(root, shift, action);
+    }
+
+    private static Object[] raise(Object[] node) {
+        if (node == null) {
+            return null;
+        }
+        Object[] parent = new Object[WIDTH];
+        parent[0] = node;
+        return parent;
+    }
+
+    private static Object[] withValue(Object[] node, int level, int key, Object value) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        int index = key >>> level & MASK;
+        copy[index] = level == 0 ? value : withValue((Object[]) copy[index], level - BITS, key, value);
+        return copy;
+    }
+
+    // the first node itself when merging changes nothing, so shared subtrees stay shared
+    private static Object[] merge(Object[] node, Object[] other, int level, BinaryOperator<Object> remapping, boolean combineShared) {
+        if (other == null || other == node && !combineShared) {
+            return node;
+        }
+        if (node == null) {
+            return other;
+        }
+        Object[] merged = node;
+        for (int i = 0; i < WIDTH; i++) {
+            Object child = node[i];
+            Object otherChild = other[i];
+            Object mergedChild;
+            if (level > 0) {
+                mergedChild = merge((Object[]) child, (Object[]) otherChild, level - BITS, remapping, combineShared);
+            } else if (otherChild == null || otherChild == child && !combineShared) {
+                mergedChild = child;
+            } else {
+                mergedChild = child == null ? otherChild : remapping.apply(child, otherChild);
+            }
+            if (mergedChild != child) {
+                if (merged == node) {
+                    merged = node.clone();
+                }
+                merged[i] = mergedChild;
+            }
+        }
+        return merged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Object[] node, int level, Consumer<? super V> action) {
+        if (node == null) {
+            return;
+        }
+        for (Object child : node) {
+            if (level > 0) {
+                forEach((Object[]) child, level - BITS, action);
+            } else if (child != null) {
+                action.accept((V) child);
+            }
+        }
+    }
+}
@@ -1,4 +0,0 @@
-package com.kw.parserProject.utility;
-
-public record ReadResults<L, R>(L nextIndex, R value) {
-}
@@ -0,0 +1,9 @@
+package com.kw.parserProject.utility;
+
+import java.util.Iterator;
+
+// lines of a random access source, which can be traced back to their position in that source
+public interface SourceLines extends Iterator<CharSequence> {
+    // translates a position within the line returned by the last next() call into an offset in the whole source
+    int sourceOffset(int positionInLine);
+}
@@ -0,0 +1,131 @@
+package com.kw.parserProject.utility;
+
+import java.util.Arrays;
+
+// immutable set of symbol ids stored as a bitset. unions return one of the operands whenever it already
+// contains the other, so sets of nested expressions are shared instead of copied
+public final class SymbolSet {
+    public static final SymbolSet EMPTY = new SymbolSet(new long[0]);
+    private static final SymbolSet[] SINGLETONS = new SymbolSet[1024]; // filled lazily, races only create equal sets
+
+    private final long[] words; // no trailing zero words
+
+    private SymbolSet(long[] words) {
+        this.words = words;
+    }
+
+    public static SymbolSet of(int symbolId) {
+        if (symbolId < 0) {
+            throw new IllegalArgumentException("Symbol id cannot be negative, got: " + symbolId);
+        }
+        if (symbolId < SINGLETONS.length) {
+            SymbolSet singleton = SINGLETONS[symbolId];
+            if (singleton == null) {
+                singleton = createSingleton(symbolId);
+                SINGLETONS[symbolId] = singleton;
+            }
+            return singleton;
+        }
+        return createSingleton(symbolId);
+    }
+
+    public static SymbolSet of(int... symbolIds) {
+        SymbolSet set = EMPTY;
+        for (int symbolId : symbolIds) {
+            set = set.union(of(symbolId));
+        }
+        return set;
+    }
+
+    public SymbolSet union(SymbolSet other) {
+        if (containsAll(other)) {
+            return this;
+        }
+        if (other.containsAll(this)) {
+            return other;
+        }
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] union = Arrays.copyOf(longer, longer.length);
+        for (int i = 0; i < shorter.length; i++) {
+            union[i] |= shorter[i];
+        }
+        return new SymbolSet(union);
+    }
+
+    public boolean containsAll(SymbolSet other) {
+        if (other.words.length > words.length) {
+            return false;
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(int symbolId) {
+        int wordIndex = symbolId >>> 6;
+        return symbolId >= 0 && wordIndex < words.length && (words[wordIndex] & 1L << symbolId) != 0;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    // the lowest symbol id not lower than given one, -1 if there is none
+    public int nextSymbol(int fromSymbolId) {
+        int wordIndex = fromSymbolId >>> 6;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+        long word = words[wordIndex] & -1L << fromSymbolId;
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    public int[] toArray() {
+        int[] symbolIds = new int[size()];
+        int i = 0;
+        for (int symbolId = nextSymbol(0); symbolId != -1; symbolId = nextSymbol(symbolId + 1)) {
+            symbolIds[i++] = symbolId;
+        }
+        return symbolIds;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        return obj instanceof SymbolSet that && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private static SymbolSet createSingleton(int symbolId) {
+        long[] words = new long[(symbolId >>> 6) + 1];
+        words[symbolId >>> 6] = 1L << symbolId;
+        return new SymbolSet(words);
+    }
+}
@@ -3,11 +3,14 @@ package com.kw.parserProject;
 import com.kw.parserProject.statements.Statement;
 import com.kw.parserProject.tokens.Token;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -17,12 +20,14 @@ public class AcceptanceTest {
     Lexer lexer;
     Parser parser;
     UnusedStatementChecker unusedStatementChecker;
+    LivenessChecker livenessChecker;
 
     @BeforeEach
     void setUp() {
         lexer = new Lexer();
         parser = new Parser();
         unusedStatementChecker = new UnusedStatementChecker();
+        livenessChecker = new LivenessChecker();
     }
 
     @ParameterizedTest(name = "Expecting {1}")
@@ -37,6 +42,103 @@ public class AcceptanceTest {
         assertEquals(expectedOutput, actualOutput.toString());
     }
 
+    @ParameterizedTest(name = "Expecting {1}")
+    @MethodSource("basicTestCases")
+    void shouldDetectUnusedStatementsUsingTokenBuffer(String input, String expectedOutput) {
+        // when
+        Program parsedProgram = parser.parse(lexer.extractTokenBuffer(input));
+        List<Statement> actualOutput = unusedStatementChecker.getUnusedStatements(parsedProgram);
+
+        // then
+        assertEquals(expectedOutput, actualOutput.toString());
+    }
+
+    @ParameterizedTest(name = "Expecting {1}")
+    @MethodSource("basicTestCases")
+    void shouldDetectUnusedStatementsUsingFlatProgram(String input, String expectedOutput) {
+        // when
+        FlatProgram flatProgram = FlatProgram.of(parser.parse(lexer.extractTokenBuffer(input)));
+        int[] actualOutput = unusedStatementChecker.getUnusedStatements(flatProgram);
+
+        // then
+        assertEquals(expectedOutput, Arrays.stream(actualOutput).mapToObj(flatProgram::print).toList().toString());
+    }
+
+    @Test
+    void shouldOrderUnusedStatementsOfSameLineByVariableNames() {
+        // given
+        Program parsedProgram = parser.parse(lexer.extractTokens("b = 1 a = 2 c = 3 a = 4"));
+
+        // when
+        List<Statement> actualOutput = unusedStatementChecker.getUnusedStatements(parsedProgram);
+        FlatProgram flatProgram = FlatProgram.of(parsedProgram);
+        int[] actualFlatOutput = unusedStatementChecker.getUnusedStatements(flatProgram);
+
+        // then
+        // overwritten assignments first, then the last assignments of every variable
+        assertEquals("[a = 2, a = 4, b = 1, c = 3]", actualOutput.toString());
+        assertEquals(actualOutput.toString(), Arrays.stream(actualFlatOutput).mapToObj(flatProgram::print).toList().toString());
+    }
+
+    @ParameterizedTest(name = "Expecting {1}")
+    @MethodSource("multiCharacterVariableTestCases")
+    void shouldDetectUnusedStatementsWithMultiCharacterVariables(String input, String expectedOutput) {
+        // when
+        Program parsedProgram = parser.parse(lexer.extractTokens(input));
+        List<Statement> actualOutput = unusedStatementChecker.getUnusedStatements(parsedProgram);
+
+        // then
+        assertEquals(expectedOutput, actualOutput.toString());
+    }
+
+    @ParameterizedTest(name = "Expecting {1}")
+    @MethodSource("livenessTestCases")
+    void shouldDetectDeadAssignmentsUsingLiveness(String input, String expectedOutput) {
+        // when
+        Program parsedProgram = parser.parse(lexer.extractTokens(input));
+        List<Statement> actualOutput = livenessChecker.getUnusedStatements(parsedProgram);
+
+        // then
+        assertEquals(expectedOutput, actualOutput.toString());
+    }
+
+    // liveness reports an assignment only when no path reads it, so 'd = 2' from 3rd line of the last two
+    // basic cases is kept - it is overwritten in 'if' section, but read by the loop in 'else' section
+    private static Stream<Arguments> livenessTestCases() {
+        Map<String, String> livenessOutputs = Map.of(
+                "[d = 2, z = 4, e = 2 + d + b]", "[z = 4, e = 2 + d + b]",
+                "[d = 2, e = 2 + d + b]", "[e = 2 + d + b]"
+        );
+        return Stream.concat(basicTestCases(), multiCharacterVariableTestCases()).map(arguments -> {
+            Object[] values = arguments.get();
+            return Arguments.of(values[0], livenessOutputs.getOrDefault((String) values[1], (String) values[1]));
+        });
+    }
+
+    private static Stream<Arguments> multiCharacterVariableTestCases() {
+        return Stream.of(
+                Arguments.of("""
+                        total = 0
+                        counter = 10
+                        step = 2
+                        while (counter > 0)
+                          total = total + counter
+                          counter = counter - 1
+                        end
+                        result = total
+                        """, "[step = 2, result = total]"),
+                Arguments.of("""
+                        ifx = 1
+                        endx = ifx
+                        if endx > 0
+                          endx = 2
+                        else
+                          ifx = 3
+                        end
+                        """, "[endx = 2, ifx = 3]")
+        );
+    }
+
     private static Stream<Arguments> basicTestCases() {
         return Stream.of(
                 Arguments.of("""
@@ -0,0 +1,186 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.ExpressionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalyzerTest {
+
+    BatchAnalyzer batchAnalyzer;
+
+    @BeforeEach
+    void setUp() {
+        batchAnalyzer = new BatchAnalyzer(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchAnalyzer.close();
+    }
+
+    @Test
+    void shouldReturnSameResultsAsSequentialAnalysisInInputOrder() {
+        // given
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sources.add(program(i % 17 * 40 + 1));
+        }
+
+        // when
+        List<AnalysisResult> results = batchAnalyzer.analyzeSources(sources);
+
+        // then
+        assertEquals(sources.size(), results.size());
+        UnusedStatementChecker checker = new UnusedStatementChecker();
+        for (int i = 0; i < sources.size(); i++) {
+            Program program = new Parser().parse(new Lexer().extractTokens(sources.get(i)));
+            assertEquals(i, results.get(i).index());
+            assertNull(results.get(i).failure());
+            assertEquals(checker.getUnusedStatements(program).toString(), results.get(i).unusedStatements().toString());
+        }
+    }
+
+    @Test
+    void shouldReportParseErrorsPerProgram() {
+        // given
+        List<String> sources = List.of("a = 1\nb = a", "a = = 1", "c = 2\nc = 3\nd = c");
+
+        // when
+        List<AnalysisResult> results = batchAnalyzer.analyzeSources(sources);
+
+        // then
+        assertFalse(results.get(0).failed());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).failure());
+        assertNull(results.get(1).unusedStatements());
+        assertEquals("[c = 2, d = c]", sortedAsText(results.get(2)));
+    }
+
+    @Test
+    void shouldReportProgramFailingInCheckerAndAnalyzeOtherPrograms() {
+        // given
+        List<String> sources = List.of("a = 1\na = 2", nestedIfStatements(100_000), "c = 2\nc = 3\nd = c");
+
+        // when
+        List<AnalysisResult> results = batchAnalyzer.analyzeSources(sources);
+
+        // then
+        assertEquals("[a = 1, a = 2]", sortedAsText(results.get(0)));
+        assertInstanceOf(StackOverflowError.class, results.get(1).failure());
+        assertNull(results.get(1).unusedStatements());
+        assertEquals("[c = 2, d = c]", sortedAsText(results.get(2)));
+    }
+
+    @Test
+    void shouldFailWhenSinkFails() {
+        // given
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sources.add(program(i + 1));
+        }
+
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> batchAnalyzer.analyzeSources(sources, _ -> {
+            throw new IllegalStateException("Sink is closed");
+        }));
+
+        // then
+        assertEquals("Analysis of a program failed", exception.getMessage());
+        assertEquals("Sink is closed", exception.getCause().getMessage());
+    }
+
+    @Test
+    void shouldShareInterningParserBetweenThreads() {
+        // given
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // names are interned in different order, so the same name has different ids in different programs
+            sources.add("v" + i % 7 + " = 1\n" + program(i % 13 * 20 + 1));
+        }
+
+        // when
+        List<AnalysisResult> results;
+        try (BatchAnalyzer sharedParserAnalyzer = new BatchAnalyzer(8, new Parser(ExpressionFactory.interning()))) {
+            results = sharedParserAnalyzer.analyzeSources(sources);
+        }
+
+        // then
+        UnusedStatementChecker checker = new UnusedStatementChecker();
+        for (int i = 0; i < sources.size(); i++) {
+            Program program = new Parser().parse(new Lexer().extractTokens(sources.get(i)));
+            assertNull(results.get(i).failure());
+            assertEquals(checker.getUnusedStatements(program).toString(), results.get(i).unusedStatements().toString());
+        }
+    }
+
+    @Test
+    void shouldReportEveryResultToSink() {
+        // given
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sources.add(i % 10 == 0 ? "x = (" : program(i + 1));
+        }
+        List<AnalysisResult> reported = new ArrayList<>();
+
+        // when
+        List<AnalysisResult> results = batchAnalyzer.analyzeSources(sources, reported::add);
+
+        // then
+        assertEquals(sources.size(), reported.size());
+        assertTrue(reported.containsAll(results));
+        assertEquals(10, results.stream().filter(AnalysisResult::failed).count());
+    }
+
+    @Test
+    void shouldAnalyzeFiles(@TempDir Path directory) throws IOException {
+        // given
+        Path small = Files.writeString(directory.resolve("small.txt"), "a = 1\na = 2\nb = a");
+        Path large = Files.writeString(directory.resolve("large.txt"), program(500));
+        Path missing = directory.resolve("missing.txt");
+
+        // when
+        List<AnalysisResult> results = batchAnalyzer.analyzeFiles(List.of(small, missing, large));
+
+        // then
+        assertEquals(small, results.get(0).file());
+        assertEquals("[a = 1, b = a]", sortedAsText(results.get(0)));
+        assertInstanceOf(IOException.class, results.get(1).failure());
+        assertEquals(large, results.get(2).file());
+        assertFalse(results.get(2).failed());
+    }
+
+    @Test
+    void shouldRejectNonPositiveParallelism() {
+        // expect
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new BatchAnalyzer(0));
+        assertEquals("Parallelism has to be positive, got: 0", exception.getMessage());
+    }
+
+    private static String sortedAsText(AnalysisResult result) {
+        List<String> statements = new ArrayList<>(result.unusedStatements().stream().map(Object::toString).toList());
+        Collections.sort(statements);
+        return statements.toString();
+    }
+
+    private static String nestedIfStatements(int depth) {
+        return "if a > 1\n".repeat(depth) + "b = a\n" + "end\n".repeat(depth);
+    }
+
+    private static String program(int lines) {
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            program.append("v").append(i % 7).append(" = v").append((i * 3) % 7).append(" + ").append(i).append('\n');
+        }
+        return program.toString();
+    }
+}
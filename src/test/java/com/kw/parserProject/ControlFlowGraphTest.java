@@ -0,0 +1,185 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Assignment;
+import com.kw.parserProject.statements.IfStatement;
+import com.kw.parserProject.statements.Statement;
+import com.kw.parserProject.statements.WhileStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControlFlowGraphTest {
+
+    Lexer lexer;
+    Parser parser;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+    }
+
+    @Test
+    void shouldSplitStatementsIntoBasicBlocks() {
+        // given
+        ControlFlowGraph graph = graphOf("""
+                a = 1
+                if a > 0
+                   b = 1
+                else
+                   b = 2
+                end
+                c = b
+                """);
+
+        // expect
+        assertEquals(4, graph.blockCount());
+        assertEquals(List.of("a = 1", "if"), actions(graph, graph.entry()));
+        assertEquals(List.of("b = 1"), actions(graph, 1));
+        assertEquals(List.of("b = 2"), actions(graph, 2));
+        assertEquals(List.of("c = b"), actions(graph, 3));
+        assertEquals(3, graph.exit());
+        assertEquals(List.of(1, 2), successors(graph, graph.entry()));
+        assertEquals(2, graph.predecessorCount(3));
+        assertEquals("a > 0", graph.expression(graph.actionEnd(graph.entry()) - 1).print());
+    }
+
+    @Test
+    void shouldComputeDominators() {
+        // given
+        ControlFlowGraph graph = graphOf("""
+                a = 1
+                if a > 0
+                   b = 1
+                else
+                   b = 2
+                end
+                c = b
+                """);
+
+        // expect
+        assertEquals(-1, graph.immediateDominator(graph.entry()));
+        assertEquals(0, graph.immediateDominator(1));
+        assertEquals(0, graph.immediateDominator(2));
+        assertEquals(0, graph.immediateDominator(3));
+        assertTrue(graph.dominates(0, 3));
+        assertTrue(graph.dominates(3, 3));
+        assertFalse(graph.dominates(1, 3));
+        assertFalse(graph.dominates(3, 0));
+    }
+
+    @Test
+    void shouldComputeLoopNesting() {
+        // given
+        ControlFlowGraph graph = graphOf("""
+                a = 1
+                while a < 10
+                   b = a
+                   while b < 5
+                      b = b + 1
+                   end
+                   a = a + b
+                end
+                c = a
+                """);
+
+        // expect
+        // entry, outer condition, outer body, inner condition, inner body, rest of outer body, after outer loop
+        assertEquals(7, graph.blockCount());
+        assertEquals(List.of(0, 1, 1, 2, 2, 1, 0), loopDepths(graph));
+        assertEquals(-1, graph.loopHeader(0));
+        assertEquals(1, graph.loopHeader(1));
+        assertEquals(1, graph.loopHeader(2));
+        assertEquals(3, graph.loopHeader(4));
+        assertEquals(1, graph.loopHeader(5));
+        assertEquals(List.of(2, 6), successors(graph, 1));
+        assertEquals(List.of(0, 5), predecessors(graph, 1));
+        assertEquals(1, graph.immediateDominator(6));
+        assertEquals(3, graph.immediateDominator(5));
+        assertTrue(graph.dominates(1, 5));
+        assertFalse(graph.dominates(4, 5));
+    }
+
+    @Test
+    void shouldBuildGraphOfLargeProgram() {
+        // given
+        List<Statement> repeatedStatements = parser.parse(lexer.extractTokens("a = a + 1\nif a > 1 b = a else c = a end")).statements();
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < 500_000; i++) {
+            statements.addAll(repeatedStatements);
+        }
+
+        // when
+        ControlFlowGraph graph = ControlFlowGraph.of(new Program(statements));
+
+        // then
+        assertEquals(1_500_001, graph.blockCount());
+        assertEquals(graph.blockCount() - 1, graph.exit());
+        assertEquals(graph.exit() - 3, graph.immediateDominator(graph.exit()));
+        assertTrue(graph.dominates(graph.entry(), graph.exit()));
+    }
+
+    @Test
+    void shouldBuildGraphOfDeeplyNestedProgram() {
+        // given
+        WhileStatement loop = (WhileStatement) parser.parse(lexer.extractTokens("while a < 5 a = a + 1 end")).statements().getFirst();
+        IfStatement ifStatement = (IfStatement) parser.parse(lexer.extractTokens("if a > 1 b = a end")).statements().getFirst();
+        Statement statement = ifStatement.ifClauseStatements().getFirst();
+        for (int i = 0; i < 10_000; i++) {
+            statement = new IfStatement(ifStatement.condition(), List.of(statement), List.of());
+            statement = new WhileStatement(loop.condition(), List.of(loop.statements().getFirst(), statement));
+        }
+        Program program = new Program(List.of(statement));
+
+        // when
+        ControlFlowGraph graph = ControlFlowGraph.of(program);
+
+        // then
+        // condition, body and 'if' section of every level, then blocks after the statements
+        assertEquals(60_001, graph.blockCount());
+        assertEquals(10_000, graph.loopDepth(30_000));
+        assertEquals("[b = a]", new LivenessChecker().getUnusedStatements(program).toString());
+        assertEquals("[b = a]", SsaForm.of(graph).unusedAssignments().toString());
+    }
+
+    private ControlFlowGraph graphOf(String program) {
+        return ControlFlowGraph.of(parser.parse(lexer.extractTokens(program)));
+    }
+
+    private static List<String> actions(ControlFlowGraph graph, int block) {
+        List<String> actions = new ArrayList<>();
+        for (int action = graph.actionStart(block); action < graph.actionEnd(block); action++) {
+            actions.add(graph.isCondition(action) ? graph.statement(action) instanceof IfStatement ? "if" : "while"
+                    : ((Assignment) graph.statement(action)).print());
+        }
+        return actions;
+    }
+
+    private static List<Integer> successors(ControlFlowGraph graph, int block) {
+        List<Integer> successors = new ArrayList<>();
+        for (int i = 0; i < graph.successorCount(block); i++) {
+            successors.add(graph.successor(block, i));
+        }
+        return successors;
+    }
+
+    private static List<Integer> predecessors(ControlFlowGraph graph, int block) {
+        List<Integer> predecessors = new ArrayList<>();
+        for (int i = 0; i < graph.predecessorCount(block); i++) {
+            predecessors.add(graph.predecessor(block, i));
+        }
+        return predecessors;
+    }
+
+    private static List<Integer> loopDepths(ControlFlowGraph graph) {
+        List<Integer> loopDepths = new ArrayList<>();
+        for (int block = 0; block < graph.blockCount(); block++) {
+            loopDepths.add(graph.loopDepth(block));
+        }
+        return loopDepths;
+    }
+}
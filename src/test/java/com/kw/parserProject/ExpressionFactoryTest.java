@@ -0,0 +1,73 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionFactoryTest {
+
+    Lexer lexer = new Lexer();
+
+    @Test
+    void shouldShareEqualSubexpressionsWhenInterning() {
+        // given
+        Parser parser = new Parser(ExpressionFactory.interning());
+
+        // when
+        Program program = parser.parse(lexer.extractTokens("a = x + 1\nb = (x + 1) * 2\nwhile x + 1\nc = x + 1\nend"));
+
+        // then
+        List<Statement> statements = program.statements();
+        Expression first = ((Assignment) statements.getFirst()).expression();
+        OperatorExpression second = (OperatorExpression) ((Assignment) statements.get(1)).expression();
+        Expression condition = ((WhileStatement) statements.get(2)).condition();
+        Expression inLoop = ((Assignment) ((WhileStatement) statements.get(2)).statements().getFirst()).expression();
+        assertSame(first, ((BracketExpression) second.leftExpression()).expressionInBrackets());
+        assertSame(first, condition);
+        assertSame(first, inLoop);
+    }
+
+    @Test
+    void shouldCreateSeparateExpressionsByDefault() {
+        // given
+        Parser parser = new Parser();
+
+        // when
+        Program program = parser.parse(lexer.extractTokens("a = x + 1\nb = x + 1"));
+
+        // then
+        Expression first = ((Assignment) program.statements().getFirst()).expression();
+        Expression second = ((Assignment) program.statements().getLast()).expression();
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void shouldParseSameProgramWithAndWithoutInterning() {
+        // given
+        String programCode = "a = 1\nwhile a < 10 * (b - 2)\nif a > 2\nb = (a - 1) * (a - 1)\nelse\nb = -2.5\nend\na = a + 1\nend";
+
+        // when
+        Program internedProgram = new Parser(ExpressionFactory.interning()).parse(lexer.extractTokens(programCode));
+
+        // then
+        assertEquals(new Parser().parse(lexer.extractTokens(programCode)), internedProgram);
+    }
+
+    @Test
+    void shouldInternDeeplyNestedBrackets() {
+        // given
+        int depth = 100_000;
+        String programCode = "a = " + "(".repeat(depth) + "b" + ")".repeat(depth) + "\nc = " + "(".repeat(depth) + "b" + ")".repeat(depth);
+
+        // when
+        Program program = new Parser(ExpressionFactory.interning()).parse(lexer.extractTokenBuffer(programCode));
+
+        // then
+        assertSame(((Assignment) program.statements().getFirst()).expression(), ((Assignment) program.statements().getLast()).expression());
+    }
+}
@@ -0,0 +1,126 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Assignment;
+import com.kw.parserProject.statements.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatProgramTest {
+
+    Lexer lexer;
+    Parser parser;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+    }
+
+    @Test
+    void shouldLinkNodesInPreOrder() {
+        // given
+        Program program = parser.parse(lexer.extractTokens("a = 1\nif a < 2\nb = (a)\nelse\nb = 2\nend\nwhile b\nend2 = b\nend"));
+
+        // when
+        FlatProgram flatProgram = FlatProgram.of(program);
+
+        // then
+        assertEquals(19, flatProgram.size());
+        int assignment = flatProgram.firstChild(flatProgram.root());
+        assertEquals(NodeKind.ASSIGNMENT, flatProgram.kind(assignment));
+        assertEquals(NodeKind.VALUE, flatProgram.kind(flatProgram.firstChild(assignment)));
+        assertEquals(1.0f, flatProgram.value(flatProgram.firstChild(assignment)));
+
+        int ifStatement = flatProgram.nextSibling(assignment);
+        assertEquals(NodeKind.IF, flatProgram.kind(ifStatement));
+        assertEquals(2, flatProgram.lineNumber(ifStatement));
+        int condition = flatProgram.firstChild(ifStatement);
+        assertEquals(Operator.LESS_THAN, flatProgram.operator(condition));
+        int ifClause = flatProgram.nextSibling(condition);
+        int elseClause = flatProgram.nextSibling(ifClause);
+        assertEquals(NodeKind.BLOCK, flatProgram.kind(ifClause));
+        assertEquals(NodeKind.BLOCK, flatProgram.kind(elseClause));
+        assertEquals("b = (a)", flatProgram.print(flatProgram.firstChild(ifClause)));
+        assertEquals(5, flatProgram.lineNumber(flatProgram.firstChild(elseClause)));
+
+        int whileStatement = flatProgram.nextSibling(ifStatement);
+        assertEquals(NodeKind.WHILE, flatProgram.kind(whileStatement));
+        assertEquals(-1, flatProgram.nextSibling(whileStatement));
+        int body = flatProgram.nextSibling(flatProgram.firstChild(whileStatement));
+        int bodyAssignment = flatProgram.firstChild(body);
+        assertEquals("end2", flatProgram.text(bodyAssignment));
+        assertEquals(lexer.symbolTable().intern("end2"), flatProgram.symbolId(bodyAssignment));
+    }
+
+    @Test
+    void shouldPrintSameAsStatements() {
+        // given
+        Program program = parser.parse(lexer.extractTokens("x = -2.50 * (y + 3) - z / (1)\nwhile x > y\ny = ((x))\nend"));
+        FlatProgram flatProgram = FlatProgram.of(program);
+
+        // when
+        String printedAssignment = flatProgram.print(flatProgram.firstChild(flatProgram.root()));
+
+        // then
+        assertEquals(((Assignment) program.statements().getFirst()).print(), printedAssignment);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> flatProgram.print(flatProgram.root()));
+        assertEquals("Only assignments and expressions can be printed, got: PROGRAM", exception.getMessage());
+    }
+
+    @Test
+    void shouldFlattenDeeplyNestedBlocks() {
+        // given
+        int depth = 100_000;
+        String programCode = "while a\n".repeat(depth) + "a = a - 1\n" + "end\n".repeat(depth);
+        Program program = parser.parse(lexer.extractTokenBuffer(programCode));
+
+        // when
+        FlatProgram flatProgram = FlatProgram.of(program);
+
+        // then
+        assertEquals(3 * depth + 5, flatProgram.size());
+        int node = flatProgram.firstChild(flatProgram.root());
+        for (int i = 0; i < depth; i++) {
+            assertEquals(NodeKind.WHILE, flatProgram.kind(node));
+            node = flatProgram.firstChild(flatProgram.nextSibling(flatProgram.firstChild(node)));
+        }
+        assertEquals("a = a - 1", flatProgram.print(node));
+    }
+
+    @Test
+    void shouldFindSameUnusedStatementsAsStatementChecker() {
+        // given
+        UnusedStatementChecker unusedStatementChecker = new UnusedStatementChecker();
+        Program program = parser.parse(lexer.extractTokens("""
+                a = 1
+                b = a
+                while b < 10
+                if a > 2
+                c = b
+                b = 1
+                else
+                a = 3
+                c = a
+                end
+                d = c + b
+                end
+                a = 4
+                """));
+
+        // when
+        FlatProgram flatProgram = FlatProgram.of(program);
+        int[] unusedNodes = unusedStatementChecker.getUnusedStatements(flatProgram);
+
+        // then
+        List<Statement> unusedStatements = unusedStatementChecker.getUnusedStatements(program);
+        assertEquals(unusedStatements.size(), unusedNodes.length);
+        for (int i = 0; i < unusedNodes.length; i++) {
+            assertEquals(unusedStatements.get(i).getLineNumber(), flatProgram.lineNumber(unusedNodes[i]));
+            assertEquals(((Assignment) unusedStatements.get(i)).print(), flatProgram.print(unusedNodes[i]));
+        }
+    }
+}
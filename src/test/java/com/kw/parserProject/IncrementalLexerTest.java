@@ -0,0 +1,146 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.Token;
+import com.kw.parserProject.tokens.VariableToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.kw.parserProject.LexerTest.assertTokensEqual;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalLexerTest {
+
+    Lexer lexer;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+    }
+
+    @Test
+    void shouldShiftLineNumbersOfFollowingTokens() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2\nc = a + b");
+
+        // when
+        List<Token> insertedTokens = incrementalLexer.edit(2, 2, "x = 3\n\ny = x");
+
+        // then
+        assertEquals(6, insertedTokens.size());
+        assertEquals(2, insertedTokens.getFirst().lineNumber);
+        assertEquals(4, insertedTokens.getLast().lineNumber);
+        assertEquals(6, incrementalLexer.lineCount());
+        assertTokensEqual(lexer.extractTokens("a = 1\nx = 3\n\ny = x\nb = 2\nc = a + b"), incrementalLexer.tokens());
+    }
+
+    @Test
+    void shouldRemoveLines() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2\nc = a + b\nd = c");
+
+        // when
+        List<Token> insertedTokens = incrementalLexer.edit(2, 4, "");
+
+        // then
+        assertTrue(insertedTokens.isEmpty());
+        assertTokensEqual(lexer.extractTokens("a = 1\nd = c"), incrementalLexer.tokens());
+    }
+
+    @Test
+    void shouldReturnTokensOfSingleLine() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2\nc = a + b");
+        incrementalLexer.edit(1, 1, "z = 0");
+
+        // when
+        List<Token> lineTokens = incrementalLexer.lineTokens(4);
+
+        // then
+        assertEquals(5, lineTokens.size());
+        assertInstanceOf(VariableToken.class, lineTokens.getFirst());
+        assertEquals("c", lineTokens.getFirst().data);
+        assertEquals(4, lineTokens.getFirst().lineNumber);
+    }
+
+    @Test
+    void shouldNotChangeTokensHandedOutBeforeEdit() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2\nc = a + b");
+        List<Token> lineTokens = incrementalLexer.lineTokens(3);
+        List<Token> tokens = incrementalLexer.tokens();
+
+        // when
+        incrementalLexer.edit(1, 1, "x = 0\ny = 0");
+
+        // then
+        assertEquals(3, lineTokens.getFirst().lineNumber);
+        assertTokensEqual(lexer.extractTokens("a = 1\nb = 2\nc = a + b"), tokens);
+        assertEquals(5, incrementalLexer.lineTokens(5).getFirst().lineNumber);
+    }
+
+    @Test
+    void shouldKeepProgramUnchangedWhenEditCannotBeLexed() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2");
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> incrementalLexer.edit(1, 2, "a = 1.2.3"));
+
+        // then
+        assertEquals("Multiple decimal separators found when attempting to parse a number", exception.getMessage());
+        assertTokensEqual(lexer.extractTokens("a = 1\nb = 2"), incrementalLexer.tokens());
+    }
+
+    @Test
+    void shouldRejectEditOutsideOfProgram() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2");
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> incrementalLexer.edit(2, 4, "c = 3"));
+
+        // then
+        assertEquals("Line number out of range: 4", exception.getMessage());
+    }
+
+    @Test
+    void shouldMatchFullLexingAfterRandomEdits() {
+        // given
+        Random random = new Random(13);
+        List<String> programLines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            programLines.add(randomLine(random));
+        }
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, String.join("\n", programLines));
+
+        for (int edit = 0; edit < 300; edit++) {
+            // when
+            int fromLine = 1 + random.nextInt(programLines.size() + 1);
+            int toLine = fromLine + random.nextInt(Math.min(4, programLines.size() + 2 - fromLine));
+            List<String> newLines = new ArrayList<>();
+            for (int i = random.nextInt(4); i > 0; i--) {
+                newLines.add(randomLine(random));
+            }
+            incrementalLexer.edit(fromLine, toLine, String.join("\n", newLines));
+            programLines.subList(fromLine - 1, toLine - 1).clear();
+            programLines.addAll(fromLine - 1, newLines);
+
+            // then
+            assertTokensEqual(lexer.extractTokens(String.join("\n", programLines)), incrementalLexer.tokens());
+        }
+    }
+
+    private static String randomLine(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> "while a < " + random.nextInt(10);
+            case 1 -> "if b > a";
+            case 2 -> "end";
+            case 3 -> "  ";
+            default -> (char) ('a' + random.nextInt(26)) + " = " + random.nextInt(100) + " * (b - 2.5)";
+        };
+    }
+}
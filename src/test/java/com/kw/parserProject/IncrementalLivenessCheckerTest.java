@@ -0,0 +1,261 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.IfStatement;
+import com.kw.parserProject.statements.Statement;
+import com.kw.parserProject.statements.WhileStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalLivenessCheckerTest {
+
+    Lexer lexer;
+    Parser parser;
+    LivenessChecker livenessChecker;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+        livenessChecker = new LivenessChecker();
+    }
+
+    @Test
+    void shouldFindSameStatementsAsLivenessChecker() {
+        // given
+        Program program = parse("""
+                a = 1
+                b = 0
+                while a < 10
+                   c = b
+                   if c > 2
+                      b = a
+                   else
+                      d = c
+                   end
+                   a = a + 1
+                end
+                d = 5
+                """);
+
+        // when
+        List<Statement> results = new IncrementalLivenessChecker(program).getUnusedStatements();
+
+        // then
+        assertEquals(livenessChecker.getUnusedStatements(program), results);
+        assertEquals("[d = c, d = 5]", results.toString());
+    }
+
+    @Test
+    void shouldUpdateStatementsAfterReplacingLoopBody() {
+        // given
+        Program program = parse("""
+                a = 1
+                b = 2
+                while a < 10
+                   a = a + 1
+                end
+                c = a
+                """);
+        IncrementalLivenessChecker checker = new IncrementalLivenessChecker(program);
+        WhileStatement loop = (WhileStatement) program.statements().get(2);
+
+        // when
+        List<Statement> results = checker.update(Map.of(loop.statements().getFirst(), statement("a = a + b")));
+
+        // then
+        assertEquals("[c = a]", results.toString());
+    }
+
+    @Test
+    void shouldMatchLivenessCheckerAfterRandomEdits() {
+        Random random = new Random(25);
+        for (int round = 0; round < 100; round++) {
+            // given
+            Program program = parse(randomStatements(random, 30, 3));
+            IncrementalLivenessChecker checker = new IncrementalLivenessChecker(program);
+
+            for (int edit = 0; edit < 20; edit++) {
+                // when
+                List<Statement> statements = new ArrayList<>();
+                collect(program.statements(), statements);
+                Map<Statement, Statement> changes = new IdentityHashMap<>();
+                for (int change = 0; change < 1 + random.nextInt(3); change++) {
+                    changes.put(statements.get(random.nextInt(statements.size())), parse(randomStatements(random, 1, 2)).statements().getFirst());
+                }
+                List<Statement> results = checker.update(changes);
+
+                // then
+                // enclosing statements first, statements inside of them are gone then
+                List<Statement> expectedStatements = program.statements();
+                for (Statement statement : statements) {
+                    if (changes.containsKey(statement)) {
+                        expectedStatements = replace(expectedStatements, statement, changes.get(statement));
+                    }
+                }
+                Program expected = new Program(expectedStatements);
+                assertEquals(expected, checker.program());
+                assertEquals(describe(livenessChecker.getUnusedStatements(expected)), describe(results));
+                program = checker.program();
+            }
+        }
+    }
+
+    @Test
+    void shouldAnalyzeOnlyEditedLoopBody() {
+        // given
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            code.append("x").append(i % 50).append(" = x").append((i + 1) % 50).append(" + 1\n");
+        }
+        code.append("while x1 < 10\n");
+        for (int i = 0; i < 20; i++) {
+            code.append("y = y + x").append(i % 10).append('\n');
+        }
+        code.append("end\n");
+        Program program = parse(code.toString());
+        IncrementalLivenessChecker checker = new IncrementalLivenessChecker(program);
+        WhileStatement loop = (WhileStatement) program.statements().getLast();
+        Statement replaced = loop.statements().get(3);
+        Statement replacement = statement("y = y + x4");
+
+        // when
+        List<Statement> results = checker.update(Map.of(replaced, replacement));
+
+        // then
+        // x3 is still read later in the loop, so the loop reads the same variables and statements before it are not analysed again
+        assertTrue(checker.analyzedStatements() <= 22, "Analysed statements: " + checker.analyzedStatements());
+        assertEquals(describe(livenessChecker.getUnusedStatements(checker.program())), describe(results));
+    }
+
+    @Test
+    void shouldUpdateDeeplyNestedProgram() {
+        // given
+        WhileStatement loop = (WhileStatement) statement("while a < 5 a = a + 1 end");
+        IfStatement ifStatement = (IfStatement) statement("if a > 1 b = a end");
+        Statement innermost = ifStatement.ifClauseStatements().getFirst();
+        Statement statement = innermost;
+        for (int i = 0; i < 10_000; i++) {
+            statement = new IfStatement(ifStatement.condition(), List.of(statement), List.of());
+            statement = new WhileStatement(loop.condition(), List.of(loop.statements().getFirst(), statement));
+        }
+        Program program = new Program(List.of(statement, statement("c = a")));
+        IncrementalLivenessChecker checker = new IncrementalLivenessChecker(program);
+        List<Statement> results = checker.getUnusedStatements();
+
+        // when
+        List<Statement> innermostResults = checker.update(Map.of(innermost, statement("a = b")));
+        Program updated = checker.program();
+        List<Statement> outermostResults = checker.update(Map.of(updated.statements().getFirst(), statement("b = 2")));
+
+        // then
+        assertEquals("[b = a, c = a]", results.toString());
+        assertEquals(livenessChecker.getUnusedStatements(updated), innermostResults);
+        assertEquals("[c = a]", innermostResults.toString());
+        assertEquals(describe(livenessChecker.getUnusedStatements(checker.program())), describe(outermostResults));
+        assertEquals(List.of("1: b = 2", "1: c = a"), describe(outermostResults));
+    }
+
+    @Test
+    void shouldReplaceEveryOccurrenceOfStatement() {
+        // given
+        Statement read = statement("b = a");
+        Statement write = statement("a = 1");
+        Program program = new Program(List.of(write, read, write, read));
+        IncrementalLivenessChecker checker = new IncrementalLivenessChecker(program);
+
+        // when
+        List<Statement> results = checker.update(Map.of(read, statement("b = 2")));
+
+        // then
+        assertEquals("[a = 1, a = 1, b = 2, b = 2]", results.toString());
+    }
+
+    @Test
+    void shouldRejectStatementOutsideOfProgram() {
+        // given
+        IncrementalLivenessChecker checker = new IncrementalLivenessChecker(parse("a = 1"));
+
+        // expect
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> checker.update(Map.of(statement("a = 1"), statement("a = 2"))));
+        assertEquals("Statement is not part of analysed program: a = 1", exception.getMessage());
+    }
+
+    private Program parse(String code) {
+        return parser.parse(lexer.extractTokens(code));
+    }
+
+    private Statement statement(String code) {
+        return parse(code).statements().getFirst();
+    }
+
+    private static List<String> describe(List<Statement> statements) {
+        return statements.stream().map(statement -> statement.getLineNumber() + ": " + statement).sorted().toList();
+    }
+
+    private static void collect(List<Statement> statements, List<Statement> collected) {
+        for (Statement statement : statements) {
+            collected.add(statement);
+            switch (statement) {
+                case IfStatement ifStatement -> {
+                    collect(ifStatement.ifClauseStatements(), collected);
+                    collect(ifStatement.elseClauseStatements(), collected);
+                }
+                case WhileStatement whileStatement -> collect(whileStatement.statements(), collected);
+                default -> {
+                }
+            }
+        }
+    }
+
+    // statements with the replaced one, compared by identity, swapped for the replacement. only statements enclosing
+    // the replaced one are created again, like by the parser
+    private static List<Statement> replace(List<Statement> statements, Statement replaced, Statement replacement) {
+        List<Statement> result = new ArrayList<>();
+        boolean changed = false;
+        for (Statement statement : statements) {
+            Statement replacedStatement = statement == replaced ? replacement : switch (statement) {
+                case IfStatement ifStatement -> {
+                    List<Statement> ifClause = replace(ifStatement.ifClauseStatements(), replaced, replacement);
+                    List<Statement> elseClause = replace(ifStatement.elseClauseStatements(), replaced, replacement);
+                    yield ifClause == ifStatement.ifClauseStatements() && elseClause == ifStatement.elseClauseStatements()
+                            ? statement : new IfStatement(ifStatement.condition(), ifClause, elseClause, ifStatement.lineNumber());
+                }
+                case WhileStatement whileStatement -> {
+                    List<Statement> body = replace(whileStatement.statements(), replaced, replacement);
+                    yield body == whileStatement.statements()
+                            ? statement : new WhileStatement(whileStatement.condition(), body, whileStatement.lineNumber());
+                }
+                default -> statement;
+            };
+            changed |= replacedStatement != statement;
+            result.add(replacedStatement);
+        }
+        return changed ? result : statements;
+    }
+
+    private static String randomStatements(Random random, int count, int depth) {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            char variable = (char) ('a' + random.nextInt(5));
+            char read = (char) ('a' + random.nextInt(5));
+            switch (depth > 0 ? random.nextInt(6) : 5) {
+                case 0 -> code.append("while ").append(read).append(" < 5\n")
+                        .append(randomStatements(random, 1 + random.nextInt(4), depth - 1)).append("end\n");
+                case 1 -> code.append("if ").append(read).append(" > 1\n")
+                        .append(randomAssignments(random, 1 + random.nextInt(3))).append("else\n")
+                        .append(randomAssignments(random, 1 + random.nextInt(2))).append("end\n");
+                default -> code.append(variable).append(" = ").append(read).append(" + ").append(random.nextInt(10)).append('\n');
+            }
+        }
+        return code.toString();
+    }
+
+    private static String randomAssignments(Random random, int count) {
+        return randomStatements(random, count, 0);
+    }
+}
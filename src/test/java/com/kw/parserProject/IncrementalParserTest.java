@@ -0,0 +1,243 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Assignment;
+import com.kw.parserProject.statements.IfStatement;
+import com.kw.parserProject.statements.WhileStatement;
+import com.kw.parserProject.tokens.Token;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalParserTest {
+
+    Lexer lexer;
+    Parser parser;
+    IncrementalParser incrementalParser;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+        incrementalParser = new IncrementalParser(parser);
+    }
+
+    @Test
+    void shouldReuseStatementsAroundEditedOne() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nwhile a < 5\nb = a\nc = b\nend\nd = 2");
+        Program program = incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        Program reparsed = edit(incrementalLexer, 3, 4, "b = a * 2");
+
+        // then
+        assertEquals(parser.parse(incrementalLexer.tokens()), reparsed);
+        assertSame(program.statements().getFirst(), reparsed.statements().getFirst());
+        assertSame(program.statements().getLast(), reparsed.statements().getLast());
+        WhileStatement whileStatement = (WhileStatement) program.statements().get(1);
+        WhileStatement reparsedWhileStatement = (WhileStatement) reparsed.statements().get(1);
+        assertSame(whileStatement.condition(), reparsedWhileStatement.condition());
+        assertNotSame(whileStatement.statements().getFirst(), reparsedWhileStatement.statements().getFirst());
+        assertSame(whileStatement.statements().getLast(), reparsedWhileStatement.statements().getLast());
+    }
+
+    @Test
+    void shouldReparseStatementContinuedByEdit() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nb = 2\nc = 3");
+        incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        Program reparsed = edit(incrementalLexer, 2, 3, "+ 4");
+
+        // then
+        assertEquals(parser.parse(incrementalLexer.tokens()), reparsed);
+        assertEquals("a = 1 + 4", ((Assignment) reparsed.statements().getFirst()).print());
+    }
+
+    @Test
+    void shouldReparseEnclosingBlockWhenItsStructureChanges() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "if a < 1\nb = 2\nc = 3\nend\nd = 4");
+        incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        Program reparsed = edit(incrementalLexer, 3, 3, "else");
+
+        // then
+        assertEquals(parser.parse(incrementalLexer.tokens()), reparsed);
+        IfStatement ifStatement = (IfStatement) reparsed.statements().getFirst();
+        assertEquals(1, ifStatement.elseClauseStatements().size());
+    }
+
+    @Test
+    void shouldShiftLinesOfFollowingStatements() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nwhile a < 5\nb = a\nend\nc = b");
+        incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        Program reparsed = edit(incrementalLexer, 3, 3, "x = 1\ny = x");
+
+        // then
+        assertEquals(parser.parse(incrementalLexer.tokens()), reparsed);
+        assertEquals(7, reparsed.statements().getLast().getLineNumber());
+    }
+
+    @Test
+    void shouldThrowSameErrorAsFullParseAndKeepPreviousProgram() {
+        // given
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, "a = 1\nwhile a < 5\nb = a\nend");
+        Program program = incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> edit(incrementalLexer, 3, 4, "b ="));
+
+        // then
+        assertEquals("Expecting expression to assign, did not encounter one", exception.getMessage());
+        assertEquals(program, incrementalParser.program());
+    }
+
+    @Test
+    void shouldRejectEditNotMatchingTokens() {
+        // given
+        List<Token> tokens = lexer.extractTokens("a = 1\nb = 2");
+        incrementalParser.parse(tokens);
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> incrementalParser.reparse(tokens, 3, 3, 4));
+
+        // then
+        assertEquals("Expected 7 tokens after the edit, got: 6", exception.getMessage());
+    }
+
+    @Test
+    void shouldReparseSingleLineOfLargeProgram() {
+        // given
+        List<String> programLines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            programLines.add("while a < " + i);
+            programLines.add("b = b + " + i);
+            programLines.add("end");
+        }
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, String.join("\n", programLines));
+        Program program = incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        Program reparsed = edit(incrementalLexer, 30_002, 30_003, "b = b * 2");
+
+        // then
+        assertEquals(parser.parse(incrementalLexer.tokens()), reparsed);
+        for (int i = 0; i < program.statements().size(); i++) {
+            if (i != 10_000) {
+                assertSame(program.statements().get(i), reparsed.statements().get(i));
+            }
+        }
+    }
+
+    @Test
+    void shouldShiftFollowingStatementsOfLargeProgramWithoutParsingThem() {
+        // given
+        List<String> programLines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            programLines.add("while a < " + i);
+            programLines.add("b = b + " + i);
+            programLines.add("end");
+        }
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, String.join("\n", programLines));
+        Program program = incrementalParser.parse(incrementalLexer.tokens());
+
+        // when
+        Program reparsed = edit(incrementalLexer, 4, 4, "c = 1\nd = c");
+
+        // then
+        assertEquals(parser.parse(incrementalLexer.tokens()), reparsed);
+        for (int i = 1; i < program.statements().size(); i++) {
+            WhileStatement whileStatement = (WhileStatement) program.statements().get(i);
+            WhileStatement shiftedWhileStatement = (WhileStatement) reparsed.statements().get(i + 2);
+            assertSame(whileStatement.condition(), shiftedWhileStatement.condition());
+            assertSame(((Assignment) whileStatement.statements().getFirst()).expression(),
+                    ((Assignment) shiftedWhileStatement.statements().getFirst()).expression());
+        }
+        Program current = incrementalParser.program();
+        assertSame(reparsed.statements().getLast(), current.statements().getLast());
+    }
+
+    @Test
+    void shouldMatchFullParseAfterRandomEdits() {
+        // given
+        Random random = new Random(14);
+        List<String> programLines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            programLines.add((char) ('a' + random.nextInt(26)) + " = " + i);
+        }
+        IncrementalLexer incrementalLexer = new IncrementalLexer(lexer, String.join("\n", programLines));
+        incrementalParser.parse(incrementalLexer.tokens());
+
+        for (int edit = 0; edit < 3000; edit++) {
+            // when
+            int fromLine = 1 + random.nextInt(programLines.size() + 1);
+            int toLine = fromLine + random.nextInt(Math.min(3, programLines.size() + 2 - fromLine));
+            List<String> newLines = new ArrayList<>();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                newLines.add(randomLine(random));
+            }
+            List<String> replacedLines = programLines.subList(fromLine - 1, toLine - 1);
+            String replacedText = String.join("\n", replacedLines);
+            replacedLines.clear();
+            programLines.addAll(fromLine - 1, newLines);
+
+            // then
+            Program expected;
+            try {
+                expected = parser.parse(lexer.extractTokens(String.join("\n", programLines)));
+            } catch (IllegalArgumentException e) {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> edit(incrementalLexer, fromLine, toLine, String.join("\n", newLines)));
+                assertEquals(e.getMessage(), exception.getMessage());
+
+                // edit is reverted, so that the program stays valid
+                programLines.subList(fromLine - 1, fromLine - 1 + newLines.size()).clear();
+                programLines.addAll(fromLine - 1, replacedText.lines().toList());
+                incrementalLexer.edit(fromLine, fromLine + newLines.size(), replacedText);
+                assertEquals(incrementalParser.program(), parser.parse(incrementalLexer.tokens()));
+                continue;
+            }
+            assertEquals(expected, edit(incrementalLexer, fromLine, toLine, String.join("\n", newLines)));
+        }
+    }
+
+    // applies the edit to given lexer and reparses tokens of edited lines
+    private Program edit(IncrementalLexer incrementalLexer, int fromLine, int toLine, String newText) {
+        int editStart = tokenCount(incrementalLexer, 1, fromLine);
+        int oldEditEnd = editStart + tokenCount(incrementalLexer, fromLine, toLine);
+        int newEditEnd = editStart + incrementalLexer.edit(fromLine, toLine, newText).size();
+        return incrementalParser.reparse(incrementalLexer.tokens(), editStart, oldEditEnd, newEditEnd);
+    }
+
+    private static int tokenCount(IncrementalLexer incrementalLexer, int fromLine, int toLine) {
+        int count = 0;
+        for (int line = fromLine; line < toLine; line++) {
+            count += incrementalLexer.lineTokens(line).size();
+        }
+        return count;
+    }
+
+    private static String randomLine(Random random) {
+        return switch (random.nextInt(9)) {
+            case 0 -> "while a < " + random.nextInt(10);
+            case 1 -> "if b > a";
+            case 2 -> "else";
+            case 3, 4 -> "end";
+            case 5 -> "+ " + random.nextInt(10);
+            case 6 -> "  ";
+            default -> (char) ('a' + random.nextInt(26)) + " = " + random.nextInt(100) + " * (b - 2.5)";
+        };
+    }
+}
@@ -3,12 +3,21 @@ package com.kw.parserProject;
 import com.kw.parserProject.tokens.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,6 +77,32 @@ class LexerTest {
         assertEquals("2351", numberToken.data);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "007", "16777217", "123456789012345678", "9999999999999999999999", "0.1", "25.178",
+            "3.4028235", "1.00000017881393432617187499", "0.000000000000000000000000000000000000000000001"})
+    void shouldReadConstantValueSameAsParseFloat(String input) {
+        // when
+        ConstantToken constantToken = assertInstanceOf(ConstantToken.class, lexer.parseLine(input).getFirst());
+
+        // then
+        assertEquals(Float.parseFloat(input), constantToken.getValue());
+    }
+
+    @Test
+    void shouldReadRandomConstantValuesSameAsParseFloat() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            // given
+            String input = random.nextInt(100_000_000) + "." + random.nextInt(1_000_000);
+
+            // when
+            ConstantToken constantToken = (ConstantToken) lexer.parseLine(input).getFirst();
+
+            // then
+            assertEquals(Float.parseFloat(input), constantToken.getValue(), input);
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"2351.x = 3", "2351. x = 3", "2351."})
     void shouldFailOnSeparatorBeingLastCharOfNumericToken(String input) {
@@ -119,11 +154,49 @@ class LexerTest {
     }
 
     @ParameterizedTest
-    @ValueSource(strings = {"whil", "abc", "fi"})
-    void shouldLimitVariablesToOneCharacter(String illegalVariable) {
-        // expect
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> lexer.parseLine(illegalVariable));
-        assertTrue(exception.getMessage().startsWith("Identifiers are expected to be one-characters only, encountered identifier starting with: "));
+    @ValueSource(strings = {"whil", "abc", "fi", "ifx", "ends", "x2", "counter10"})
+    void shouldReadMultiCharacterVariables(String variable) {
+        // when
+        List<Token> tokens = lexer.parseLine(variable);
+
+        // then
+        assertEquals(1, tokens.size());
+        assertInstanceOf(VariableToken.class, tokens.getFirst());
+        assertEquals(variable, tokens.getFirst().data);
+    }
+
+    @Test
+    void shouldGiveSameSymbolIdToSameVariableNames() {
+        // given
+        SymbolTable symbols = new SymbolTable();
+        Lexer lexerWithOwnSymbols = new Lexer(symbols);
+
+        // when
+        List<Token> tokens = lexerWithOwnSymbols.extractTokens("total = count\ncount = total + count");
+
+        // then
+        List<Integer> symbolIds = tokens.stream()
+                .filter(token -> token instanceof VariableToken)
+                .map(token -> ((VariableToken) token).getSymbolId())
+                .toList();
+        assertEquals(List.of(0, 1, 1, 0, 1), symbolIds);
+        assertEquals("total", symbols.name(0));
+        assertEquals("count", symbols.name(1));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    void shouldRecognizeKeywordFollowedDirectlyByOtherTokens() {
+        // when
+        List<Token> tokens = lexer.parseLine("if(x<2.5)end while(yy)ifx");
+
+        // then
+        assertEquals(List.of(KeywordToken.class, OpeningBracketToken.class, VariableToken.class, OperatorToken.class, ConstantToken.class,
+                        ClosingBracketToken.class, KeywordToken.class, KeywordToken.class, OpeningBracketToken.class, VariableToken.class,
+                        ClosingBracketToken.class, VariableToken.class),
+                tokens.stream().map(Token::getClass).toList());
+        assertEquals(List.of("if", "(", "x", "LESS_THAN", "2.5", ")", "end", "while", "(", "yy", ")", "ifx"),
+                tokens.stream().map(token -> token.data).toList());
     }
 
     @Test
@@ -133,6 +206,181 @@ class LexerTest {
         assertEquals("Cannot recognize token at position: 1", exception.getMessage());
     }
 
+    @Test
+    void shouldAssignLineNumbersToExtractedTokens() {
+        // when
+        List<Token> tokens = lexer.extractTokens("x = 1\n\ny = x\r\nz = 2\r");
+
+        // then
+        assertEquals(9, tokens.size());
+        assertEquals(List.of(1, 1, 1, 3, 3, 3, 4, 4, 4), tokens.stream().map(token -> token.lineNumber).toList());
+    }
+
+    @Test
+    void shouldStreamSameTokensFromReaderAndCharSequence() {
+        // given
+        String program = "a = 1\nif a < 5\r\n   a = a + 1\rend\nb = a";
+        List<Token> expected = lexer.extractTokens(program);
+
+        // when
+        List<Token> fromReader = lexer.tokenStream(new StringReader(program)).toList();
+        List<Token> fromCharSequence = lexer.tokenStream(new StringBuilder(program)).toList();
+
+        // then
+        assertTokensEqual(expected, fromReader);
+        assertTokensEqual(expected, fromCharSequence);
+    }
+
+    @Test
+    void shouldReportLexingErrorOnlyWhenReachingOffendingLine() {
+        // given
+        Iterator<Token> tokens = lexer.tokenIterator(new StringReader("x = 1\ny = 2.\n"));
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, tokens.next().lineNumber);
+        }
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, tokens::hasNext);
+
+        // then
+        assertEquals("Encountering decimal number with separator, but without any numbers after it", exception.getMessage());
+    }
+
+    @Test
+    void shouldLexMappedFileSameAsString(@TempDir Path directory) throws IOException {
+        // given
+        // includes a non-ASCII whitespace, which has to be recognized the same way in both cases
+        String program = "c = 5 + 2\r\nwhile c < 10\n  c = c * 2.25\u2003\rend\n\nb = -c\n";
+        Path programFile = Files.writeString(directory.resolve("program.txt"), program, StandardCharsets.UTF_8);
+
+        // when
+        List<Token> tokens = lexer.extractTokens(programFile);
+
+        // then
+        assertTokensEqual(lexer.extractTokens(program), tokens);
+    }
+
+    @Test
+    void shouldReportSameErrorForMappedFile(@TempDir Path directory) throws IOException {
+        // given
+        Path programFile = Files.writeString(directory.resolve("program.txt"), "x = 1\n 💩", StandardCharsets.UTF_8);
+
+        // expect
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> lexer.extractTokens(programFile));
+        assertEquals("Cannot recognize token at position: 1", exception.getMessage());
+    }
+
+    @Test
+    void shouldFillTokenBufferWithSameTokensAsExtractTokens() {
+        // given
+        String program = "c = 5 + (- 2 + 5)\nwhile c < 10\r\n  c = c * 2.25\nend\n";
+
+        // when
+        TokenBuffer tokenBuffer = lexer.extractTokenBuffer(program);
+
+        // then
+        assertTokensEqual(lexer.extractTokens(program), tokenBuffer.toTokens());
+    }
+
+    @Test
+    void shouldPointTokenBufferEntriesBackIntoSource() {
+        // given
+        String program = "x = 1\r\nwhile x < 25.5\n";
+
+        // when
+        TokenBuffer tokenBuffer = lexer.extractTokenBuffer(program);
+
+        // then
+        assertEquals(7, tokenBuffer.size());
+        assertEquals(TokenKind.KEYWORD, tokenBuffer.kind(3));
+        assertEquals(Keyword.WHILE, tokenBuffer.keyword(3));
+        assertEquals(7, tokenBuffer.start(3));
+        assertEquals(12, tokenBuffer.end(3));
+        assertEquals(2, tokenBuffer.lineNumber(3));
+        assertEquals(Operator.LESS_THAN, tokenBuffer.operator(5));
+        assertEquals("25.5", program.substring(tokenBuffer.start(6), tokenBuffer.end(6)));
+        assertEquals("25.5", tokenBuffer.text(6));
+    }
+
+    @Test
+    void shouldPointTokenBufferEntriesIntoMappedFileByByteOffsets(@TempDir Path directory) throws IOException {
+        // given
+        String program = "x = 1\ny\u2003= 2.5\n";
+        Path programFile = Files.writeString(directory.resolve("program.txt"), program, StandardCharsets.UTF_8);
+
+        // when
+        TokenBuffer tokenBuffer = lexer.extractTokenBuffer(programFile);
+
+        // then
+        assertTokensEqual(lexer.extractTokens(program), tokenBuffer.toTokens());
+        // em space takes 3 bytes, so the assignment sign starts at byte 10 of the file
+        assertEquals(TokenKind.ASSIGNMENT, tokenBuffer.kind(4));
+        assertEquals(10, tokenBuffer.start(4));
+        assertEquals(12, tokenBuffer.start(5));
+        assertEquals(15, tokenBuffer.end(5));
+    }
+
+    @Test
+    void shouldReportLexingErrorsAndSkipMalformedTokensInDiagnosticsMode() {
+        // given
+        String program = "a = 1.2.3 + b\nc = $ d\ne = 4. * 2";
+        List<Diagnostic> diagnostics = new ArrayList<>();
+
+        // when
+        List<Token> tokens = lexer.extractTokenBuffer(program, diagnostics::add).toTokens();
+
+        // then
+        assertEquals(List.of("a", "=", "PLUS", "b", "c", "=", "d", "e", "=", "MULTIPLY", "2"), tokens.stream().map(token -> token.data).toList());
+        assertEquals(List.of(
+                        new Diagnostic(Diagnostic.Stage.LEXING, 1, 4, "Multiple decimal separators found when attempting to parse a number", null, null),
+                        new Diagnostic(Diagnostic.Stage.LEXING, 2, 4, "Cannot recognize token at position: 4", null, null),
+                        new Diagnostic(Diagnostic.Stage.LEXING, 3, 4, "Encountering decimal number with separator, but without any numbers after it", null, null)),
+                diagnostics);
+    }
+
+    @Test
+    void shouldLexSameTokensWithVectorizedScanning() {
+        // given
+        // long whitespace and digit runs, so that they span multiple vectors, mixed with non-ASCII whitespaces
+        Random random = new Random(7);
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            program.append(" ".repeat(random.nextInt(70))).append("x =").append("\t".repeat(random.nextInt(3)))
+                    .append(random.nextInt(10) == 0 ? "\u2003" : " ")
+                    .append(String.valueOf(random.nextLong() & Long.MAX_VALUE).repeat(1 + random.nextInt(4)))
+                    .append(random.nextBoolean() ? "." + random.nextInt(1000) : "")
+                    .append(" + y").append(" ".repeat(random.nextInt(40))).append("\n");
+        }
+        Lexer vectorizedLexer = Lexer.withVectorizedScanning();
+
+        // when
+        List<Token> tokens = vectorizedLexer.extractTokens(program.toString());
+
+        // then
+        assertTokensEqual(lexer.extractTokens(program.toString()), tokens);
+        assertTokensEqual(lexer.extractTokenBuffer(program).toTokens(), vectorizedLexer.extractTokenBuffer(program).toTokens());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"                                    2351.x = 3", "x = 1234567890123456789012345678901234.5.", " 💩"})
+    void shouldReportSameErrorsWithVectorizedScanning(String input) {
+        // when
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () -> lexer.extractTokens(input));
+        IllegalArgumentException actual = assertThrows(IllegalArgumentException.class, () -> Lexer.withVectorizedScanning().extractTokens(input));
+
+        // then
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    static void assertTokensEqual(List<Token> expected, List<Token> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(expected.get(i).data, actual.get(i).data);
+            assertEquals(expected.get(i).lineNumber, actual.get(i).lineNumber);
+        }
+    }
+
     public static Stream<Arguments> basicTokenTestCases() {
         return Stream.of(
                 Arguments.of("x", VariableToken.class, "x"),
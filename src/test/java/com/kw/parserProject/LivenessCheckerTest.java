@@ -0,0 +1,122 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Statement;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LivenessCheckerTest {
+
+    Lexer lexer;
+    Parser parser;
+    LivenessChecker livenessChecker;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+        livenessChecker = new LivenessChecker();
+    }
+
+    @Test
+    void shouldKeepAssignmentReadOnlyInOneBranch() {
+        // given
+        String program = """
+                a = 1
+                if c > 0
+                   a = 2
+                else
+                   b = a
+                end
+                d = a + b
+                """;
+
+        // when
+        List<Statement> results = livenessChecker.getUnusedStatements(parser.parse(lexer.extractTokens(program)));
+
+        // then
+        assertEquals("[d = a + b]", results.toString());
+    }
+
+    @Test
+    void shouldPropagateReadsThroughNestedLoops() {
+        // given
+        // 'b' is read by the outer loop only after the inner one is left and the outer one starts over
+        String program = """
+                a = 0
+                b = 0
+                while a < 10
+                   c = b
+                   while c < 5
+                      b = c
+                      c = c + 1
+                   end
+                   a = a + 1
+                end
+                """;
+
+        // when
+        List<Statement> results = livenessChecker.getUnusedStatements(parser.parse(lexer.extractTokens(program)));
+
+        // then
+        assertEquals("[]", results.toString());
+    }
+
+    @Test
+    void shouldReportAssignmentOverwrittenInEveryIteration() {
+        // given
+        String program = """
+                a = 0
+                while a < 10
+                   b = a
+                   b = 2
+                   a = a + b
+                end
+                """;
+
+        // when
+        List<Statement> results = livenessChecker.getUnusedStatements(parser.parse(lexer.extractTokens(program)));
+
+        // then
+        assertEquals("[b = a]", results.toString());
+    }
+
+    @Test
+    void shouldAnalyseLargePrograms() {
+        // given
+        String program = "a = 0\n" + "while a < 10\nif a > 5\nb = a\nelse\nc = b\nend\na = a + 1\nend\n".repeat(20_000) + "d = c\n";
+
+        // when
+        List<Statement> results = livenessChecker.getUnusedStatements(parser.parse(lexer.extractTokens(program)));
+
+        // then
+        assertEquals("[d = c]", results.toString());
+    }
+
+    @Test
+    void shouldAnalyseProgramWithManyVariablesInMemoryProportionalToItsSize() {
+        // given
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < 60_000; i++) {
+            program.append("if c > 1\nv").append(i).append(" = c\nend\n");
+        }
+        ControlFlowGraph graph = ControlFlowGraph.of(parser.parse(lexer.extractTokens(program.toString())));
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // when
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        List<Statement> results = livenessChecker.getUnusedStatements(graph);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        // then
+        // 180 001 blocks and 60 001 variables, bit vectors of every block would take gigabytes
+        assertEquals(60_000, results.size());
+        assertTrue(allocated < 64_000_000, "Allocated bytes: " + allocated);
+    }
+}
@@ -0,0 +1,167 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.Token;
+import com.kw.parserProject.tokens.TokenBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static com.kw.parserProject.LexerTest.assertTokensEqual;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelLexerTest {
+
+    Lexer lexer;
+    ParallelLexer parallelLexer;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parallelLexer = new ParallelLexer(lexer, 64, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelLexer.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 64, 1_000, 1_000_000})
+    void shouldLexSameTokensAsSequentialLexer(int chunkSize) {
+        // given
+        String program = randomProgram(new Random(chunkSize), 3_000);
+
+        // when
+        List<Token> tokens;
+        try (ParallelLexer chunkedLexer = new ParallelLexer(lexer, chunkSize, 3)) {
+            tokens = chunkedLexer.extractTokens(program);
+        }
+
+        // then
+        assertTokensEqual(lexer.extractTokens(program), tokens);
+    }
+
+    @Test
+    void shouldKeepSourceOffsetsOfTokens() {
+        // given
+        String program = randomProgram(new Random(3), 500);
+
+        // when
+        TokenBuffer expected = lexer.extractTokenBuffer(program);
+        TokenBuffer actual = parallelLexer.extractTokenBuffer(program);
+
+        // then
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.start(i), actual.start(i));
+            assertEquals(expected.end(i), actual.end(i));
+            assertEquals(expected.lineNumber(i), actual.lineNumber(i));
+        }
+    }
+
+    @Test
+    void shouldGiveVariablesSameSymbolIdsAsSequentialLexer() {
+        // given
+        String program = "total = 0\ncounter = total\nwhile counter < 10\ncounter = counter + step\nend\nresult = total + counter\n".repeat(20);
+        SymbolTable sequentialSymbols = new SymbolTable();
+        SymbolTable parallelSymbols = new SymbolTable();
+
+        // when
+        TokenBuffer expected = new Lexer(sequentialSymbols).extractTokenBuffer(program);
+        TokenBuffer actual;
+        try (ParallelLexer chunkedLexer = new ParallelLexer(new Lexer(parallelSymbols), 16, 4)) {
+            actual = chunkedLexer.extractTokenBuffer(program);
+        }
+
+        // then
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.ordinal(i), actual.ordinal(i));
+        }
+        assertEquals(sequentialSymbols.size(), parallelSymbols.size());
+        for (int i = 0; i < sequentialSymbols.size(); i++) {
+            assertEquals(sequentialSymbols.name(i), parallelSymbols.name(i));
+        }
+    }
+
+    @Test
+    void shouldNotSplitWindowsLineBreaksBetweenChunks() {
+        // given
+        String program = "a = 1\r\n\r\nb = 2\r\r\nc = a + b\n\rd = c\r\n";
+
+        // when
+        List<Token> tokens;
+        try (ParallelLexer chunkedLexer = new ParallelLexer(lexer, 1, 2)) {
+            tokens = chunkedLexer.extractTokens(program);
+        }
+
+        // then
+        assertTokensEqual(lexer.extractTokens(program), tokens);
+        assertEquals(7, tokens.getLast().lineNumber);
+    }
+
+    @Test
+    void shouldReportFirstErrorInSourceOrder() {
+        // given
+        StringBuilder program = new StringBuilder(randomProgram(new Random(5), 200));
+        program.append("x = 1.2.3\n");
+        program.append(randomProgram(new Random(6), 200));
+        program.append("y = $\n");
+
+        // when
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () -> lexer.extractTokens(program.toString()));
+        IllegalArgumentException actual = assertThrows(IllegalArgumentException.class, () -> parallelLexer.extractTokens(program));
+
+        // then
+        assertEquals("Multiple decimal separators found when attempting to parse a number", actual.getMessage());
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    void shouldLexMappedFileSameAsSequentialLexer(@TempDir Path directory) throws IOException {
+        // given
+        String program = randomProgram(new Random(11), 1_000) + "z = 1\n";
+        Path programFile = directory.resolve("program.txt");
+        Files.writeString(programFile, program, StandardCharsets.UTF_8);
+
+        // when
+        List<Token> tokens = parallelLexer.extractTokenBuffer(programFile).toTokens();
+
+        // then
+        assertTokensEqual(lexer.extractTokens(programFile), tokens);
+    }
+
+    @Test
+    void shouldRejectNonPositiveChunkSize() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new ParallelLexer(lexer, 0, 1));
+
+        // then
+        assertEquals("Chunk size has to be positive, got: 0", exception.getMessage());
+    }
+
+    private static String randomProgram(Random random, int lines) {
+        String[] lineBreaks = {"\n", "\r\n", "\r"};
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            switch (random.nextInt(4)) {
+                case 0 -> program.append("while a < ").append(random.nextInt(100)).append(" a = a + 1.5 end");
+                case 1 -> program.append("if b > a c = 2 else c = b * 3 end");
+                case 2 -> program.append(" ".repeat(random.nextInt(5)));
+                default -> program.append((char) ('a' + random.nextInt(26))).append(" = (").append(random.nextInt(1000)).append(" - d) / 2");
+            }
+            program.append(lineBreaks[random.nextInt(lineBreaks.length)]);
+        }
+        return program.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.tokens.Token;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelParserTest {
+
+    Lexer lexer;
+    Parser parser;
+    ParallelParser parallelParser;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+        parallelParser = new ParallelParser(parser, 16, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelParser.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 64, 1_000, 1_000_000})
+    void shouldParseSameProgramAsSequentialParser(int chunkSize) {
+        // given
+        List<Token> tokens = lexer.extractTokens(randomProgram(new Random(chunkSize), 2_000));
+
+        // when
+        Program program;
+        try (ParallelParser chunkedParser = new ParallelParser(parser, chunkSize, 3)) {
+            program = chunkedParser.parse(tokens);
+        }
+
+        // then
+        assertEquals(parser.parse(tokens), program);
+    }
+
+    @Test
+    void shouldParseTokensWithoutRandomAccess() {
+        // given
+        List<Token> tokens = new LinkedList<>(lexer.extractTokens(randomProgram(new Random(3), 500)));
+
+        // when
+        Program program = parallelParser.parse(tokens);
+
+        // then
+        assertEquals(parser.parse(tokens), program);
+    }
+
+    @Test
+    void shouldReportSameErrorAsSequentialParser() {
+        // given
+        String program = randomProgram(new Random(5), 300) + "x = 1 +\n" + randomProgram(new Random(6), 300) + "y = )\n";
+        List<Token> tokens = lexer.extractTokens(program);
+
+        // when
+        SyntaxException expected = assertThrows(SyntaxException.class, () -> parser.parse(tokens));
+        SyntaxException exception = assertThrows(SyntaxException.class, () -> parallelParser.parse(tokens));
+
+        // then
+        assertEquals(expected.getMessage(), exception.getMessage());
+        assertEquals(expected.getPosition(), exception.getPosition());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"else\n", "end\n", "(\n", ")\n", "+ 1\n"})
+    void shouldReportSameErrorAsSequentialParserForTokensBeforeFirstStatement(String strayTokens) {
+        // given
+        List<Token> tokens = lexer.extractTokens(strayTokens + randomProgram(new Random(7), 300));
+
+        // when
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () -> parser.parse(tokens));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> parallelParser.parse(tokens));
+
+        // then
+        assertEquals(expected.getMessage(), exception.getMessage());
+    }
+
+    @Test
+    void shouldFallBackToSequentialParsingWhenChunkDoesNotEndAtItsBoundary() {
+        // given
+        // 'if' is closed by the second 'else', so the pre-scan sees the following assignments as nested in it
+        String program = "a = 1\nif a > 0\nb = 1\nelse\nc = 1\nelse\n" + "d = 2\n".repeat(20) + "end\ne = d\n";
+        List<Token> tokens = lexer.extractTokens(program);
+
+        // when
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () -> parser.parse(tokens));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> parallelParser.parse(tokens));
+
+        // then
+        assertEquals(expected.getMessage(), exception.getMessage());
+    }
+
+    @Test
+    void shouldReportEmptyProgram() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> parallelParser.parse(List.of()));
+
+        // then
+        assertEquals("Expecting at least one statement", exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectNonPositiveChunkSize() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new ParallelParser(parser, 0, 1));
+
+        // then
+        assertEquals("Chunk size has to be positive, got: 0", exception.getMessage());
+    }
+
+    private static String randomProgram(Random random, int lines) {
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            switch (random.nextInt(5)) {
+                case 0 -> program.append("while a < ").append(random.nextInt(100)).append("\na = a + 1.5\nif a > b\nb = a\nend\nend");
+                case 1 -> program.append("if b > a c = 2 else c = b * 3 end");
+                case 2 -> program.append("d = d\n+ 1");
+                default -> program.append((char) ('a' + random.nextInt(26))).append(" = (").append(random.nextInt(1000)).append(" - d) / 2");
+            }
+            program.append('\n');
+        }
+        return program.toString();
+    }
+}
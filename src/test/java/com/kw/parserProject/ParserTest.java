@@ -2,9 +2,13 @@ package com.kw.parserProject;
 
 import com.kw.parserProject.statements.*;
 import com.kw.parserProject.tokens.*;
+import com.kw.parserProject.utility.SymbolSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 import static com.kw.parserProject.Operator.*;
@@ -106,6 +110,19 @@ class ParserTest {
         assertEquals(-25.178f, leftExpression.value());
     }
 
+    @Test
+    void shouldKeepOriginalSpellingOfNegatedConstant() {
+        // when
+        List<Statement> statements = parser.parse(List.of(new VariableToken("x"), new AssignmentToken(),
+                        new OperatorToken(MINUS), new ConstantToken("025.50")))
+                .statements();
+
+        // then
+        ValueExpression valueExpression = assertInstanceOf(ValueExpression.class, ((Assignment) statements.getFirst()).expression());
+        assertEquals(-25.5f, valueExpression.value());
+        assertEquals("x = -025.50", statements.getFirst().toString());
+    }
+
     @Test
     void shouldThrowWithWrongOperatorWhenConstantIsExpected() {
         // when
@@ -497,6 +514,265 @@ class ParserTest {
         assertEquals("Did not manage to consume all tokens", exception.getMessage());
     }
 
+    @Test
+    void shouldParseLongOperatorChainIntoLeftAssociativeTree() {
+        // given
+        // x = 0 + a * b - a * b + a * b ... with 20k operators
+        int terms = 10_000;
+        List<Token> tokens = new ArrayList<>(List.of(new VariableToken("x"), new AssignmentToken(), new ConstantToken("0")));
+        for (int i = 0; i < terms; i++) {
+            tokens.addAll(List.of(new OperatorToken(i % 2 == 0 ? PLUS : MINUS), new VariableToken("a"), new OperatorToken(MULTIPLY), new VariableToken("b")));
+        }
+
+        // when
+        List<Statement> statements = parser.parse(tokens).statements();
+
+        // then
+        // additive operators form the left spine, every product hangs on its right side
+        Expression expression = ((Assignment) statements.getFirst()).expression();
+        for (int i = terms - 1; i >= 0; i--) {
+            OperatorExpression additiveExpression = assertOperator(expression, i % 2 == 0 ? PLUS : MINUS);
+            OperatorExpression product = assertOperator(additiveExpression.rightExpression(), MULTIPLY);
+            assertVariableExpression(product.leftExpression(), "a");
+            assertVariableExpression(product.rightExpression(), "b");
+            expression = additiveExpression.leftExpression();
+        }
+        assertValueExpression(expression, 0f);
+    }
+
+    @Test
+    void shouldShareReadSymbolsAlongLongOperatorChain() {
+        // given
+        int terms = 10_000;
+        List<Token> tokens = new ArrayList<>(List.of(new VariableToken("x"), new AssignmentToken(), new VariableToken("a")));
+        for (int i = 0; i < terms; i++) {
+            tokens.addAll(List.of(new OperatorToken(PLUS), new VariableToken(i % 2 == 0 ? "a" : "b")));
+        }
+
+        // when
+        List<Statement> statements = parser.parse(tokens).statements();
+
+        // then
+        OperatorExpression expression = (OperatorExpression) ((Assignment) statements.getFirst()).expression();
+        assertEquals(SymbolSet.of(SymbolTable.defaultTable().intern("a"), SymbolTable.defaultTable().intern("b")), expression.readSymbolSet());
+        assertSame(expression.readSymbolSet(), expression.leftExpression().readSymbolSet());
+        assertEquals(2, expression.readVariables().size());
+    }
+
+    @Test
+    void shouldComputeReadSymbolsOfVariableWithHighSymbolIdOnce() {
+        // given
+        VariableExpression expression = new VariableExpression("x", 5000);
+
+        // expect
+        assertEquals(SymbolSet.of(5000), expression.readSymbolSet());
+        assertSame(expression.readSymbolSet(), expression.readSymbolSet());
+    }
+
+    @Test
+    void shouldParseDeeplyNestedBlocks() {
+        // given
+        // while a < 1 if a > 0 ... x = 1 end else y = 2 end ... end - 100k levels deep
+        int depth = 100_000;
+        List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            tokens.addAll(List.of(new KeywordToken(i % 2 == 0 ? "while" : "if"), new VariableToken("a"), new OperatorToken(LESS_THAN), new ConstantToken("1")));
+        }
+        tokens.addAll(List.of(new VariableToken("x"), new AssignmentToken(), new ConstantToken("1")));
+        for (int i = depth - 1; i >= 0; i--) {
+            if (i % 2 == 1) {
+                tokens.addAll(List.of(new KeywordToken("else"), new VariableToken("y"), new AssignmentToken(), new ConstantToken("2")));
+            }
+            tokens.add(new KeywordToken("end"));
+        }
+
+        // when
+        List<Statement> statements = parser.parse(tokens).statements();
+
+        // then
+        for (int i = 0; i < depth; i++) {
+            assertEquals(1, statements.size());
+            if (i % 2 == 0) {
+                statements = assertInstanceOf(WhileStatement.class, statements.getFirst()).statements();
+            } else {
+                IfStatement ifStatement = assertInstanceOf(IfStatement.class, statements.getFirst());
+                assertEquals("y", ((Assignment) ifStatement.elseClauseStatements().getFirst()).writeVariable());
+                statements = ifStatement.ifClauseStatements();
+            }
+        }
+        assertEquals("x", ((Assignment) statements.getFirst()).writeVariable());
+    }
+
+    @Test
+    void shouldParseDeeplyNestedBrackets() {
+        // given
+        // x = ((((a + 1) * 2) + 1) * 2 ...) - 100k levels deep
+        int depth = 100_000;
+        List<Token> tokens = new ArrayList<>(List.of(new VariableToken("x"), new AssignmentToken()));
+        for (int i = 0; i < depth; i++) {
+            tokens.add(new OpeningBracketToken());
+        }
+        tokens.add(new VariableToken("a"));
+        for (int i = 0; i < depth; i++) {
+            tokens.addAll(List.of(new OperatorToken(i % 2 == 0 ? PLUS : MULTIPLY), new ConstantToken("1"), new ClosingBracketToken()));
+        }
+
+        // when
+        List<Statement> statements = parser.parse(tokens).statements();
+
+        // then
+        Expression expression = ((Assignment) statements.getFirst()).expression();
+        for (int i = depth - 1; i >= 0; i--) {
+            OperatorExpression operatorExpression = assertOperator(assertBracketExpression(expression).expressionInBrackets(), i % 2 == 0 ? PLUS : MULTIPLY);
+            assertValueExpression(operatorExpression.rightExpression(), 1f);
+            expression = operatorExpression.leftExpression();
+        }
+        assertVariableExpression(expression, "a");
+    }
+
+    @Test
+    void shouldFailOnUnclosedBracket() {
+        // expect
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> parser.parse(List.of(
+                new VariableToken("x"), new AssignmentToken(), new OpeningBracketToken(), new OpeningBracketToken(), new VariableToken("a"), new ClosingBracketToken())));
+        assertEquals("All tokens already consumed", exception.getMessage());
+    }
+
+    @Test
+    void shouldParseLinkedListOfTokensSameAsArrayList() {
+        // given
+        List<Token> tokens = new Lexer().extractTokens("""
+                a = (b + 1) * -2
+                while a < 10
+                  if a > b
+                    a = a + 1
+                  else
+                    b = b - 1
+                  end
+                end
+                """);
+
+        // when
+        Program fromLinkedList = parser.parse(new LinkedList<>(tokens));
+        Program fromArrayList = parser.parse(tokens);
+
+        // then
+        assertEquals(fromArrayList, fromLinkedList);
+    }
+
+    @Test
+    void shouldCollectAllDiagnosticsAndReturnPartialProgram() {
+        // given
+        List<Token> tokens = new Lexer().extractTokens("""
+                a = 1
+                b = * 2
+                while a < 10
+                  c = (a + 1
+                  a = a + 1
+                end
+                if > 3
+                  d = 4
+                end
+                e = a + b )
+                f = e
+                """);
+        List<Diagnostic> diagnostics = new ArrayList<>();
+
+        // when
+        Program program = parser.parse(new TokenList(tokens), diagnostics::add);
+
+        // then
+        assertEquals(List.of(
+                        "Expecting expression to assign, did not encounter one",
+                        "Expected com.kw.parserProject.tokens.ClosingBracketToken, got class com.kw.parserProject.tokens.VariableToken",
+                        "Expecting condition in 'if' statement, did not encounter one",
+                        "Did not manage to consume all tokens"),
+                diagnostics.stream().map(Diagnostic::message).toList());
+        assertEquals(List.of(2, 5, 7, 10), diagnostics.stream().map(Diagnostic::lineNumber).toList());
+        assertEquals(TokenKind.CLOSING_BRACKET, diagnostics.get(1).expected());
+        assertEquals(TokenKind.VARIABLE, diagnostics.get(1).actual());
+
+        assertEquals("[a = 1, e = a + b, f = e]", program.statements().stream()
+                .filter(statement -> statement instanceof Assignment).toList().toString());
+        WhileStatement whileStatement = assertInstanceOf(WhileStatement.class, program.statements().get(1));
+        assertEquals("[a = a + 1]", whileStatement.statements().toString());
+    }
+
+    @Test
+    void shouldCloseOpenBlocksWhenTokensEndInDiagnosticsMode() {
+        // given
+        List<Token> tokens = new Lexer().extractTokens("a = 1\nwhile a < 3\nif a > 1\nb = a");
+        List<Diagnostic> diagnostics = new ArrayList<>();
+
+        // when
+        Program program = parser.parse(new TokenList(tokens), diagnostics::add);
+
+        // then
+        assertEquals(1, diagnostics.size());
+        assertEquals("All tokens already consumed", diagnostics.getFirst().message());
+        assertEquals(4, diagnostics.getFirst().lineNumber());
+        WhileStatement whileStatement = assertInstanceOf(WhileStatement.class, program.statements().get(1));
+        IfStatement ifStatement = assertInstanceOf(IfStatement.class, whileStatement.statements().getFirst());
+        assertEquals("[b = a]", ifStatement.ifClauseStatements().toString());
+    }
+
+    @Test
+    void shouldThrowSyntaxExceptionWithoutStackTrace() {
+        // when
+        SyntaxException exception = assertThrows(SyntaxException.class, () -> parser.parse(List.of(new VariableToken("x"), new AssignmentToken())));
+
+        // then
+        assertEquals("Expecting expression to assign, did not encounter one", exception.getMessage());
+        assertEquals(2, exception.getPosition());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void shouldParseFromReaderSameAsFromTokenList() {
+        // given
+        Lexer lexer = new Lexer();
+        String programCode = "a = -1.5\nwhile a < 10 * (b - 2)\nif a > 2\nb = (a - 1) * a\nelse\nb = 2\nend\na = a + 1\nend\nc = a";
+
+        // when
+        Program program = parser.parse(lexer, new StringReader(programCode));
+
+        // then
+        assertEquals(parser.parse(lexer.extractTokens(programCode)), program);
+    }
+
+    @Test
+    void shouldReportSameErrorsWhenParsingFromReader() {
+        // given
+        Lexer lexer = new Lexer();
+        List<String> malformedPrograms = List.of("a = 1\nwhile a\nb = 2", "a = 1\nend", "a = (1 + 2\nb = 1", "a = 1\nb =\n", "", "if a\nend");
+
+        for (String programCode : malformedPrograms) {
+            // when
+            SyntaxException expected = assertThrows(SyntaxException.class, () -> parser.parse(lexer.extractTokens(programCode)));
+            SyntaxException exception = assertThrows(SyntaxException.class, () -> parser.parse(lexer, new StringReader(programCode)));
+
+            // then
+            assertEquals(expected.getMessage(), exception.getMessage());
+            assertEquals(expected.getPosition(), exception.getPosition());
+        }
+    }
+
+    @Test
+    void shouldDropTokensOfParsedStatementsWhenParsingFromReader() {
+        // given
+        String programCode = "while a < 1\nx = x + 1\nend\n".repeat(10_000) + "y = x";
+        PullTokenSource tokens = new PullTokenSource(new Lexer(), new StringReader(programCode));
+
+        // when
+        Program program = parser.parse(tokens);
+
+        // then
+        assertEquals(10_001, program.statements().size());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> tokens.kind(0));
+        assertEquals("Token was already released: 0", exception.getMessage());
+        assertEquals(TokenKind.VARIABLE, tokens.kind(tokens.size() - 1));
+    }
+
     private static OperatorExpression assertOperator(Expression operatorExpression, Operator expected) {
         assertInstanceOf(OperatorExpression.class, operatorExpression);
         OperatorExpression expression = (OperatorExpression) operatorExpression;
@@ -0,0 +1,83 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.utility.PersistentIntMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntMapTest {
+
+    @Test
+    void shouldKeepPreviousVersionsUnchanged() {
+        // given
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().with(3, "a").with(40, "b");
+
+        // when
+        PersistentIntMap<String> updated = map.with(3, "c").with(100_000, "d").without(40);
+
+        // then
+        assertEquals("a", map.get(3));
+        assertEquals("b", map.get(40));
+        assertNull(map.get(100_000));
+        assertEquals("c", updated.get(3));
+        assertNull(updated.get(40));
+        assertEquals("d", updated.get(100_000));
+        assertNull(updated.get(-1));
+    }
+
+    @Test
+    void shouldMergeValuesOfBothMaps() {
+        // given
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().with(1, "a").with(2, "b");
+        PersistentIntMap<String> other = map.with(2, "c").with(5_000, "d");
+
+        // when
+        PersistentIntMap<String> merged = map.merge(other, String::concat);
+
+        // then
+        List<String> values = new ArrayList<>();
+        merged.forEach(values::add);
+        assertEquals(List.of("a", "bc", "d"), values);
+    }
+
+    @Test
+    void shouldShareUnchangedVersionWhenMerging() {
+        // given
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().with(1, "a").with(70, "b");
+
+        // when
+        PersistentIntMap<String> merged = map.merge(map, (value, otherValue) -> fail("Shared values are not combined"));
+
+        // then
+        assertSame(map, merged);
+        assertSame(map, map.without(2));
+        assertSame(map, map.merge(PersistentIntMap.empty(), String::concat));
+    }
+
+    @Test
+    void shouldCombineSharedValuesWhenMergingAll() {
+        // given
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().with(1, "a").with(70, "b");
+        PersistentIntMap<String> other = map.with(70, "c").with(3, "d");
+
+        // when
+        PersistentIntMap<String> merged = map.mergeAll(other, String::concat).mergeAll(map, String::concat);
+
+        // then
+        List<String> values = new ArrayList<>();
+        merged.forEach(values::add);
+        assertEquals(List.of("aaa", "d", "bcb"), values);
+    }
+
+    @Test
+    void shouldRejectNegativeKey() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> PersistentIntMap.empty().with(-1, "a"));
+
+        // then
+        assertEquals("Key cannot be negative, got: -1", exception.getMessage());
+    }
+}
@@ -0,0 +1,153 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.statements.Assignment;
+import com.kw.parserProject.statements.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SsaFormTest {
+
+    Lexer lexer;
+    Parser parser;
+
+    @BeforeEach
+    void setUp() {
+        lexer = new Lexer();
+        parser = new Parser();
+    }
+
+    @Test
+    void shouldMergeBranchesOfIfWithPhi() {
+        // given
+        SsaForm ssa = ssaOf("""
+                if c > 0
+                   a = 1
+                else
+                   a = 2
+                end
+                b = a
+                """);
+
+        // when
+        int read = ssa.actionUseStart(assignmentAction(ssa, "b = a"));
+        int phi = ssa.useDefinition(read);
+
+        // then
+        assertTrue(ssa.isPhi(phi));
+        assertEquals(SsaForm.UNDEFINED, ssa.useDefinition(ssa.actionUseStart(0)));
+        assertEquals("a = 1", ssa.assignment(ssa.useDefinition(ssa.phiOperand(phi, 0))).print());
+        assertEquals("a = 2", ssa.assignment(ssa.useDefinition(ssa.phiOperand(phi, 1))).print());
+        assertEquals(1, ssa.definitionUseCount(phi));
+        assertEquals(read, ssa.definitionUse(phi, 0));
+    }
+
+    @Test
+    void shouldMergeValuesFromPreviousIterationsAtLoopCondition() {
+        // given
+        SsaForm ssa = ssaOf("""
+                a = 0
+                while a < 10
+                   a = a + 1
+                end
+                """);
+        int initialAssignment = ssa.actionDefinition(assignmentAction(ssa, "a = 0"));
+        int loopAssignment = ssa.actionDefinition(assignmentAction(ssa, "a = a + 1"));
+
+        // when
+        int phi = ssa.useDefinition(ssa.actionUseStart(assignmentAction(ssa, "a = a + 1")));
+
+        // then
+        assertTrue(ssa.isPhi(phi));
+        assertEquals(ssa.graph().loopHeader(ssa.definitionBlock(loopAssignment)), ssa.definitionBlock(phi));
+        assertEquals(initialAssignment, ssa.useDefinition(ssa.phiOperand(phi, 0)));
+        assertEquals(loopAssignment, ssa.useDefinition(ssa.phiOperand(phi, 1)));
+        assertEquals(2, ssa.definitionUseCount(phi)); // condition and the assignment
+    }
+
+    @Test
+    void shouldReportAssignmentsWithoutUses() {
+        // given
+        SsaForm ssa = ssaOf("""
+                a = 1
+                b = a
+                x = 3
+                y = 4
+                while (b < 5)
+                  z = x
+                  b = b + 1
+                  x = 9
+                  y = 10
+                end
+                """);
+
+        // when
+        List<Statement> unusedAssignments = ssa.unusedAssignments();
+
+        // then
+        assertEquals("[y = 4, z = x, y = 10]", unusedAssignments.toString());
+    }
+
+    @Test
+    void shouldSkipPhisOfVariablesReadOnlyWhereAssigned() {
+        // given
+        SsaForm ssa = ssaOf("""
+                if c > 0
+                   a = 1
+                   b = a
+                else
+                   a = 2
+                end
+                """);
+
+        // expect
+        for (int definition = 0; definition < ssa.definitionCount(); definition++) {
+            assertFalse(ssa.isPhi(definition));
+        }
+        assertEquals("[b = a, a = 2]", ssa.unusedAssignments().toString());
+    }
+
+    @Test
+    void shouldBuildFormOfLargeProgram() {
+        // given
+        List<Statement> repeatedStatements = parser.parse(lexer.extractTokens("""
+                a = a + 1
+                while a < 10
+                   if a > 1
+                      b = a
+                   else
+                      c = b
+                   end
+                   a = a + c
+                end
+                """)).statements();
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            statements.addAll(repeatedStatements);
+        }
+
+        // when
+        SsaForm ssa = SsaForm.of(new Program(statements));
+
+        // then
+        assertEquals(600_000, ssa.graph().actionCount());
+        assertEquals(List.of(), ssa.unusedAssignments());
+    }
+
+    private SsaForm ssaOf(String program) {
+        return SsaForm.of(parser.parse(lexer.extractTokens(program)));
+    }
+
+    private static int assignmentAction(SsaForm ssa, String printed) {
+        for (int action = 0; action < ssa.graph().actionCount(); action++) {
+            if (ssa.graph().statement(action) instanceof Assignment assignment && assignment.print().equals(printed)) {
+                return action;
+            }
+        }
+        throw new AssertionError("No assignment " + printed);
+    }
+}
@@ -0,0 +1,69 @@
+package com.kw.parserProject;
+
+import com.kw.parserProject.utility.SymbolSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolSetTest {
+
+    @Test
+    void shouldReturnContainingOperandOfUnion() {
+        // given
+        SymbolSet set = SymbolSet.of(1, 70, 3);
+        SymbolSet subset = SymbolSet.of(70);
+
+        // when
+        SymbolSet union = set.union(subset);
+        SymbolSet reversedUnion = subset.union(set);
+
+        // then
+        assertSame(set, union);
+        assertSame(set, reversedUnion);
+        assertSame(SymbolSet.EMPTY, SymbolSet.EMPTY.union(SymbolSet.EMPTY));
+    }
+
+    @Test
+    void shouldUniteDisjointSets() {
+        // given
+        SymbolSet set = SymbolSet.of(0, 64);
+        SymbolSet other = SymbolSet.of(5_000);
+
+        // when
+        SymbolSet union = set.union(other);
+
+        // then
+        assertArrayEquals(new int[]{0, 64, 5_000}, union.toArray());
+        assertEquals(3, union.size());
+        assertTrue(union.containsAll(set));
+        assertTrue(union.containsAll(other));
+        assertFalse(set.containsAll(union));
+        assertEquals(SymbolSet.of(5_000, 64, 0), union);
+    }
+
+    @Test
+    void shouldIterateSymbolsInAscendingOrder() {
+        // given
+        SymbolSet set = SymbolSet.of(130, 2, 63, 64);
+
+        // expect
+        assertEquals(2, set.nextSymbol(0));
+        assertEquals(63, set.nextSymbol(3));
+        assertEquals(64, set.nextSymbol(64));
+        assertEquals(130, set.nextSymbol(65));
+        assertEquals(-1, set.nextSymbol(131));
+        assertEquals(-1, SymbolSet.EMPTY.nextSymbol(0));
+        assertTrue(set.contains(63));
+        assertFalse(set.contains(65));
+        assertFalse(set.contains(1_000));
+    }
+
+    @Test
+    void shouldRejectNegativeSymbolId() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> SymbolSet.of(-1));
+
+        // then
+        assertEquals("Symbol id cannot be negative, got: -1", exception.getMessage());
+    }
+}
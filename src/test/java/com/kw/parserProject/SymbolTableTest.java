@@ -0,0 +1,50 @@
+package com.kw.parserProject;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    void shouldInternNameFromTextRange() {
+        // given
+        SymbolTable symbols = new SymbolTable();
+        int id = symbols.intern("counter");
+
+        // when
+        int idFromRange = symbols.intern("x = counter + 1", 4, 11);
+
+        // then
+        assertEquals(id, idFromRange);
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    void shouldGiveDenseIdsInOrderOfAppearance() {
+        // given
+        SymbolTable symbols = new SymbolTable();
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, symbols.intern("v" + i));
+        }
+
+        // then
+        assertEquals(1_000, symbols.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, symbols.intern("v" + i));
+            assertEquals("v" + i, symbols.name(i));
+        }
+    }
+
+    @Test
+    void shouldFailForUnknownId() {
+        // given
+        SymbolTable symbols = new SymbolTable();
+        symbols.intern("a");
+
+        // expect
+        assertThrows(IndexOutOfBoundsException.class, () -> symbols.name(1));
+    }
+}
@@ -4,6 +4,7 @@ import com.kw.parserProject.statements.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.kw.parserProject.Operator.*;
@@ -174,5 +175,87 @@ class UnusedStatementCheckerTest {
         assertEquals(yIsXPlusTwo, results.getFirst());
     }
 
+    @Test
+    void shouldReportAssignmentKeptByBothBranchesForStateBeforeAndAfterEachBranch() {
+        // given
+        Statement ifStatement = new IfStatement(zLessThanFive, List.of(yIsTwo), List.of());
+
+        // when
+        List<Statement> results = unusedStatementChecker.getUnusedStatements(new Program(List.of(xIsFive, ifStatement)));
+
+        // then
+        assertEquals(List.of(xIsFive, xIsFive, xIsFive, yIsTwo), results);
+    }
+
+    @Test
+    void shouldReportAssignmentOverwrittenInBothBranchesForEachBranch() {
+        // given
+        Assignment xIsSeven = new Assignment("x", new ValueExpression("7"));
+        Statement ifStatement = new IfStatement(zLessThanFive, List.of(xIsSix), List.of(xIsSeven));
 
-}
\ No newline at end of file
+        // when
+        List<Statement> results = unusedStatementChecker.getUnusedStatements(new Program(List.of(xIsFive, ifStatement)));
+
+        // then
+        assertEquals(List.of(xIsFive, xIsFive, xIsFive, xIsSix, xIsSeven), results);
+    }
+
+    @Test
+    void shouldHandleLongChainOfIfStatements() {
+        // given
+        Expression sumLessThanFive = new OperatorExpression(new OperatorExpression(new OperatorExpression(
+                new VariableExpression("x"), PLUS, new VariableExpression("y")), PLUS,
+                new VariableExpression("z")), LESS_THAN, new ValueExpression("5"));
+        List<Statement> statements = new ArrayList<>();
+        statements.add(xIsFive);
+        Assignment yIsConstant = null;
+        Assignment zIsXPlusConstant = null;
+        for (int i = 0; i < 5_000; i++) {
+            yIsConstant = new Assignment("y", new ValueExpression(String.valueOf(i)));
+            zIsXPlusConstant = new Assignment("z", new OperatorExpression(new VariableExpression("x"), PLUS, new ValueExpression(String.valueOf(i))));
+            statements.add(new IfStatement(sumLessThanFive, List.of(yIsConstant), List.of(zIsXPlusConstant)));
+        }
+
+        // when
+        List<Statement> results = unusedStatementChecker.getUnusedStatements(new Program(statements));
+
+        // then
+        // every condition reads all variables, only the last 'y' and 'z' are left
+        assertEquals(List.of(yIsConstant, zIsXPlusConstant), results);
+    }
+
+    @Test
+    void shouldHandleDeeplyNestedIfStatements() {
+        // given
+        Statement statement = yIsTwo;
+        for (int i = 0; i < 500; i++) {
+            statement = new IfStatement(zLessThanFive, List.of(statement), List.of());
+        }
+
+        // when
+        List<Statement> results = unusedStatementChecker.getUnusedStatements(new Program(List.of(xIsFive, statement)));
+
+        // then
+        // assignment from before every 'if' is kept by the state before it and by both of its branches
+        assertEquals(1_002, results.size());
+        assertEquals(1_001, results.stream().filter(xIsFive::equals).count());
+        assertEquals(yIsTwo, results.getLast());
+    }
+
+    @Test
+    void shouldTreatSameNameFromDifferentSymbolTablesAsOneVariable() {
+        // given
+        SymbolTable firstSymbols = new SymbolTable();
+        SymbolTable secondSymbols = new SymbolTable();
+        // both 'a' of the first table and 'b' of the second one get id 0
+        secondSymbols.intern("b");
+        Assignment aIsOne = new Assignment("a", firstSymbols, new ValueExpression("1"));
+        Assignment bIsA = new Assignment("b", secondSymbols, new VariableExpression("a", secondSymbols));
+
+        // when
+        List<Statement> results = unusedStatementChecker.getUnusedStatements(new Program(List.of(aIsOne, bIsA)));
+
+        // then
+        assertEquals(List.of(bIsA), results);
+    }
+}
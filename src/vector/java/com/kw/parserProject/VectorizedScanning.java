@@ -0,0 +1,74 @@
+package com.kw.parserProject;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.CharBuffer;
+
+// classifies whole vectors of characters at once to skip over whitespace and digit runs.
+// compiled only with 'vector-api' build profile, loaded by Lexer.withVectorizedScanning()
+final class VectorizedScanning implements CharacterScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    // vectors are loaded from arrays, so lines are copied into a reused per-thread buffer first
+    private static final ThreadLocal<char[]> LINE_BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+    @Override
+    public CharSequence stage(CharSequence line) {
+        int length = line.length();
+        char[] buffer = LINE_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            LINE_BUFFER.set(buffer);
+        }
+        if (line instanceof String string) {
+            string.getChars(0, length, buffer, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer[i] = line.charAt(i);
+            }
+        }
+        return CharBuffer.wrap(buffer, 0, length);
+    }
+
+    // index of the first character which is not an ASCII whitespace, or the index where the vectorized part ended.
+    // remaining tail and any non-ASCII character are left for the scalar loop
+    @Override
+    public int skipWhitespaces(CharSequence line, int from) {
+        char[] input = ((CharBuffer) line).array();
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(line.length() - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            ShortVector characters = ShortVector.fromCharArray(SPECIES, input, i);
+            // same ASCII characters as Character.isWhitespace accepts: '\t' to '\r' and '\u001C' to ' '
+            VectorMask<Short> whitespaces = characters.compare(VectorOperators.GE, (short) '\t')
+                    .and(characters.compare(VectorOperators.LE, (short) '\r'))
+                    .or(characters.compare(VectorOperators.GE, (short) '\u001C')
+                            .and(characters.compare(VectorOperators.LE, (short) ' ')));
+            int firstOther = whitespaces.not().firstTrue();
+            if (firstOther < SPECIES.length()) {
+                return i + firstOther;
+            }
+        }
+        return i;
+    }
+
+    // same as above, for ASCII digits
+    @Override
+    public int skipAsciiDigits(CharSequence line, int from) {
+        char[] input = ((CharBuffer) line).array();
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(line.length() - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            ShortVector characters = ShortVector.fromCharArray(SPECIES, input, i);
+            VectorMask<Short> digits = characters.compare(VectorOperators.GE, (short) '0')
+                    .and(characters.compare(VectorOperators.LE, (short) '9'));
+            int firstOther = digits.not().firstTrue();
+            if (firstOther < SPECIES.length()) {
+                return i + firstOther;
+            }
+        }
+        return i;
+    }
+}